@@ -14,7 +14,15 @@ import java.util.List;
 interface ComponentProvider<T> {
 	T get(Context context);
 
+	default T get(Context context, Dependencies dependencies) {
+		return get(context);
+	}
+
 	default List<ComponentRef<?>> getDependencies() {
 		return List.of();
 	}
+
+	interface Dependencies {
+		Object get(int index);
+	}
 }
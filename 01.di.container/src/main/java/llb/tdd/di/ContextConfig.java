@@ -21,6 +21,11 @@ public class ContextConfig {
 
     private final Map<Component, ComponentProvider<?>> components = new HashMap<>();
     private final Map<Class<?>, ScopeProvider> scopes = new HashMap<>();
+    private Injection injection = Injection.Reflective;
+    private boolean injected;
+    public enum Injection {
+        Reflective, Compiled
+    }
     public ContextConfig() {
         scope(Singleton.class, SingletonProvider::new);
     }
@@ -37,28 +42,59 @@ public class ContextConfig {
     public <ScopeType extends Annotation> void scope(Class<ScopeType> scope, ScopeProvider provider) {
         scopes.put(scope, provider);
     }
+    public void injection(Injection injection) {
+        if (injected && injection != this.injection) {
+            throw ContextConfigException.injectionAfterBinding(injection);
+        }
+        this.injection = injection;
+    }
     public void from(Config config) {
         new DSL(config).bind();
     }
     public Context getContext() {
-        components.keySet().forEach(component -> checkDependencies(component, new Stack<>()));
-        HashMap<Component, ComponentProvider<?>> context = new HashMap<>(components);
-        return new Context() {
-            @Override
-            public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
-                if (ref.isContainer()) {
-                    if (ref.getContainer() != Provider.class) {
-                        return Optional.empty();
-                    }
-                    return (Optional<ComponentType>) Optional.ofNullable(getProvider(ref))
-                            .map(provider -> (Provider<Object>) () -> provider.get(this));
-                }
-                return Optional.ofNullable(getProvider(ref)).map(provider -> (ComponentType) provider.get(this));
+        return new IndexedContext(checkDependencies(), components);
+    }
+    private static class IndexedContext implements Context {
+        private final Map<Component, Integer> ids = new HashMap<>();
+        private final ComponentProvider<?>[] providers;
+        private final ComponentRef<?>[][] dependencies;
+        private final int[][] dependencyIds;
+        IndexedContext(List<Component> order, Map<Component, ComponentProvider<?>> components) {
+            providers = new ComponentProvider<?>[order.size()];
+            dependencies = new ComponentRef<?>[order.size()][];
+            dependencyIds = new int[order.size()][];
+            for (int id = 0; id < order.size(); id++) {
+                ids.put(order.get(id), id);
+                providers[id] = components.get(order.get(id));
+            }
+            for (int id = 0; id < order.size(); id++) {
+                dependencies[id] = providers[id].getDependencies().toArray(ComponentRef<?>[]::new);
+                dependencyIds[id] = stream(dependencies[id]).mapToInt(ref -> ids.get(ref.component())).toArray();
             }
-            private <ComponentType> ComponentProvider<?> getProvider(ComponentRef<ComponentType> ref) {
-                return context.get(ref.component());
+        }
+        @Override
+        public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+            Integer id = ids.get(ref.component());
+            if (ref.isContainer()) {
+                if (ref.getContainer() != Provider.class) {
+                    return Optional.empty();
+                }
+                return (Optional<ComponentType>) Optional.ofNullable(id).map(this::provider);
             }
-        };
+            return Optional.ofNullable(id).map(i -> (ComponentType) get(i));
+        }
+        private Object get(int id) {
+            return providers[id].get(this, index -> resolve(id, index));
+        }
+        private Object resolve(int id, int index) {
+            ComponentRef<?> ref = dependencies[id][index];
+            if (!ref.isContainer()) return get(dependencyIds[id][index]);
+            if (ref.getContainer() == Provider.class) return provider(dependencyIds[id][index]);
+            return get(ref).get();
+        }
+        private Provider<Object> provider(int id) {
+            return () -> get(id);
+        }
     }
     private void bindComponent(Class<?> type, Class<?> implementation, Annotation... annotations) {
         Bindings bindings = Bindings.component(implementation, annotations);
@@ -82,7 +118,8 @@ public class ContextConfig {
         components.put(component, provider);
     }
     private <Type> ComponentProvider<?> provider(Class<Type> implementation, Optional<Annotation> scope) {
-        ComponentProvider<?> injectionProvider = new InjectionProvider<>(implementation);
+        injected = true;
+        ComponentProvider<?> injectionProvider = new InjectionProvider<>(implementation, injection);
         return scope.<ComponentProvider<?>>map(s -> scoped(s, injectionProvider)).orElse(injectionProvider);
     }
     private ComponentProvider<?> scoped(Annotation scope, ComponentProvider<?> provider) {
@@ -91,20 +128,35 @@ public class ContextConfig {
         }
         return scopes.get(scope.annotationType()).create(provider);
     }
-    private void checkDependencies(Component component, Stack<Component> visiting) {
+    List<Component> checkDependencies() {
+        List<Component> order = new ArrayList<>(components.size());
+        Set<Component> visited = new HashSet<>();
+        for (Component component : components.keySet()) {
+            checkDependencies(component, new LinkedHashSet<>(), visited, order);
+        }
+        return order;
+    }
+    private void checkDependencies(Component component, LinkedHashSet<Component> visiting, Set<Component> visited, List<Component> order) {
+        if (visited.contains(component)) return;
+        visiting.add(component);
         for (ComponentRef<?> dependency : components.get(component).getDependencies()) {
             if (!components.containsKey(dependency.component())) {
                 throw unsatisfiedResolution(component, dependency.component());
             }
             if (!dependency.isContainer()) {
                 if (visiting.contains(dependency.component())) {
-                    throw circularDependencies(visiting, dependency.component());
+                    throw circularDependencies(cycle(visiting, dependency.component()), dependency.component());
                 }
-                visiting.push(dependency.component());
-                checkDependencies(dependency.component(), visiting);
-                visiting.pop();
+                checkDependencies(dependency.component(), visiting, visited, order);
             }
         }
+        visiting.remove(component);
+        visited.add(component);
+        order.add(component);
+    }
+    private static List<Component> cycle(Collection<Component> visiting, Component circular) {
+        List<Component> path = new ArrayList<>(visiting);
+        return path.subList(path.indexOf(circular), path.size());
     }
     record Component(Class<?> type, Annotation qualifier) {
     }
@@ -211,6 +263,9 @@ class ContextConfigException extends RuntimeException {
     static ContextConfigException unknownScope(Class<? extends Annotation> annotationType) {
         return new ContextConfigException(MessageFormat.format("Unknown scope: {0}", annotationType));
     }
+    static ContextConfigException injectionAfterBinding(ContextConfig.Injection injection) {
+        return new ContextConfigException(MessageFormat.format("Injection must be selected before binding components: {0}", injection));
+    }
     static ContextConfigException duplicated(Object component) {
         return new ContextConfigException(MessageFormat.format("Duplicated: {0}", component));
     }
@@ -4,6 +4,9 @@ import jakarta.inject.Inject;
 import jakarta.inject.Qualifier;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.text.MessageFormat;
 import java.util.*;
@@ -32,7 +35,12 @@ class InjectionProvider<T> implements ComponentProvider<T> {
     private final Map<Class<?>, List<Injectable<Field>>> injectFields;
     private final Collection<Class<?>> superClasses;
     private final List<ComponentRef<?>> dependencies;
+    private final Map<Injectable<?>, Integer> offsets = new IdentityHashMap<>();
+    private final Injector<T> injector;
     public InjectionProvider(Class<T> component) {
+        this(component, ContextConfig.Injection.Reflective);
+    }
+    public InjectionProvider(Class<T> component, ContextConfig.Injection injection) {
         this.injectConstructor = getInjectConstructor(component);
         this.superClasses = allSuperClass(component);
         var injectFields = getInjectFields(component);
@@ -41,32 +49,92 @@ class InjectionProvider<T> implements ComponentProvider<T> {
                 .map(Injectable::required).flatMap(Arrays::stream).toList();
         this.injectFields = groupByClass(injectFields);
         this.injectMethods = groupByClass(injectMethods);
+        int offset = injectConstructor.required().length;
+        for (Injectable<?> member : concat(injectFields.stream(), injectMethods.stream()).toList()) {
+            offsets.put(member, offset);
+            offset += member.required().length;
+        }
+        this.injector = injection == ContextConfig.Injection.Compiled ? compiled() : this::reflective;
     }
     @Override
     public T get(Context context) {
+        return get(context, index -> context.get(dependencies.get(index)).get());
+    }
+    @Override
+    public T get(Context context, Dependencies dependencies) {
+        Object[] resolved = new Object[this.dependencies.size()];
+        for (int i = 0; i < resolved.length; i++) resolved[i] = dependencies.get(i);
+        return injector.inject(resolved);
+    }
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return dependencies;
+    }
+    interface Injector<T> {
+        T inject(Object[] dependencies);
+    }
+    private T reflective(Object[] dependencies) {
         try {
-            T instance = injectConstructor.element().newInstance(injectConstructor.toDependencies(context));
+            T instance = injectConstructor.element().newInstance(Arrays.copyOf(dependencies, injectConstructor.required().length));
             for (Class<?> c : superClasses) {
                 for (Injectable<Field> field : injectFields.getOrDefault(c, List.of())) {
-                    field.element().set(instance, field.toDependencies(context)[0]);
+                    field.element().set(instance, dependencies[offsets.get(field)]);
                 }
                 for (Injectable<Method> method : injectMethods.getOrDefault(c, List.of())) {
-                    method.element().invoke(instance, method.toDependencies(context));
+                    int offset = offsets.get(method);
+                    method.element().invoke(instance, Arrays.copyOfRange(dependencies, offset, offset + method.required().length));
                 }
             }
             return instance;
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
         }
     }
-    @Override
-    public List<ComponentRef<?>> getDependencies() {
-        return dependencies;
+    private Injector<T> compiled() {
+        MethodHandle injection = compile();
+        return dependencies -> {
+            try {
+                return (T) (Object) injection.invokeExact(dependencies);
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
     }
-    record Injectable<Element extends AccessibleObject>(Element element, ComponentRef<?>[] required) {
-        Object[] toDependencies(Context context) {
-            return stream(required).map(context::get).map(Optional::get).toArray();
+    private MethodHandle compile() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle injection = MethodHandles.dropArguments(MethodHandles.identity(Object.class), 1, Object[].class);
+            List<Class<?>> classes = new ArrayList<>(superClasses);
+            Collections.reverse(classes);
+            for (Class<?> c : classes) {
+                List<Injectable<Method>> methods = injectMethods.getOrDefault(c, List.of());
+                for (int i = methods.size() - 1; i >= 0; i--)
+                    injection = MethodHandles.foldArguments(injection, fromDependencies(lookup.unreflect(methods.get(i).element()), 1, offsets.get(methods.get(i))));
+                List<Injectable<Field>> fields = injectFields.getOrDefault(c, List.of());
+                for (int i = fields.size() - 1; i >= 0; i--)
+                    injection = MethodHandles.foldArguments(injection, fromDependencies(lookup.unreflectSetter(fields.get(i).element()), 1, offsets.get(fields.get(i))));
+            }
+            return MethodHandles.foldArguments(injection, fromDependencies(lookup.unreflectConstructor(injectConstructor.element()), 0, 0));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
         }
+    }
+    private static MethodHandle fromDependencies(MethodHandle handle, int leading, int offset) {
+        MethodType generic = handle.type().generic();
+        if (leading != 0) generic = generic.changeReturnType(void.class);
+        MethodHandle erased = handle.asType(generic);
+        int count = generic.parameterCount() - leading;
+        MethodHandle[] getters = new MethodHandle[count];
+        for (int i = 0; i < count; i++)
+            getters[i] = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, offset + i);
+        int[] reorder = new int[leading + count];
+        for (int i = 0; i < reorder.length; i++) reorder[i] = Math.min(i, leading);
+        MethodType type = MethodType.methodType(generic.returnType(), Collections.nCopies(leading, Object.class)).appendParameterTypes(Object[].class);
+        return MethodHandles.permuteArguments(MethodHandles.filterArguments(erased, leading, getters), type, reorder);
+    }
+    record Injectable<Element extends AccessibleObject>(Element element, ComponentRef<?>[] required) {
         static <Element extends Executable> Injectable<Element> of(Element element) {
             element.setAccessible(true);
             return new Injectable<>(element, stream(element.getParameters()).map(Injectable::toComponentRef).toArray(ComponentRef<?>[]::new));
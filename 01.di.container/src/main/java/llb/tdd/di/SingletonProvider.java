@@ -1,6 +1,7 @@
 package llb.tdd.di;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * @author LiLuBing
@@ -12,17 +13,32 @@ import java.util.List;
  * @Version V1.0
  */
 class SingletonProvider<T> implements ComponentProvider<T> {
-	private T singleton;
-	private ComponentProvider<T> provider;
+	private volatile T singleton;
+	private Thread constructing;
+	private final ComponentProvider<T> provider;
 	public SingletonProvider(ComponentProvider<T> provider) {
 		this.provider = provider;
 	}
 	@Override
 	public T get(Context context) {
-		if (singleton == null) {
-			singleton = provider.get(context);
+		T instance = singleton;
+		return instance != null ? instance : create(() -> provider.get(context));
+	}
+	@Override
+	public T get(Context context, Dependencies dependencies) {
+		T instance = singleton;
+		return instance != null ? instance : create(() -> provider.get(context, dependencies));
+	}
+	private synchronized T create(Supplier<T> constructor) {
+		T instance = singleton;
+		if (instance != null) return instance;
+		if (constructing == Thread.currentThread()) throw new IllegalStateException("Singleton resolved while constructing itself");
+		constructing = Thread.currentThread();
+		try {
+			return singleton = constructor.get();
+		} finally {
+			constructing = null;
 		}
-		return singleton;
 	}
 	@Override
 	public List<ComponentRef<?>> getDependencies() {
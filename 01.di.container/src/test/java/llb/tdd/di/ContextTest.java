@@ -13,7 +13,10 @@ import org.mockito.internal.util.collections.Sets;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.Retention;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -22,6 +25,7 @@ import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 /**
  * @author LiLuBing
@@ -111,6 +115,41 @@ class ContextTest {
             }
         }
 
+        static class ProviderAndQualifiedInjection implements TestComponent {
+            @Inject
+            Provider<Dependency> provider;
+            @Inject
+            @jakarta.inject.Named("ChosenOne")
+            String name;
+
+            @Override
+            public Dependency dependency() {
+                return provider.get();
+            }
+        }
+
+        @Test
+        public void should_not_change_injection_after_component_bound() {
+            config.component(Dependency.class, DependencyWithInjectConstructor.class);
+
+            assertThrows(ContextConfigException.class, () -> config.injection(ContextConfig.Injection.Compiled));
+            assertDoesNotThrow(() -> config.injection(ContextConfig.Injection.Reflective));
+        }
+
+        @Test
+        public void should_resolve_transitive_dependencies_inside_component_graph() {
+            config.injection(ContextConfig.Injection.Compiled);
+            config.component(TestComponent.class, ProviderAndQualifiedInjection.class);
+            config.component(Dependency.class, DependencyWithInjectConstructor.class);
+            config.instance(String.class, "indirect dependency");
+            config.instance(String.class, "chosen one", new NamedLiteral("ChosenOne"));
+
+            ProviderAndQualifiedInjection component = (ProviderAndQualifiedInjection) config.getContext().get(ComponentRef.of(TestComponent.class)).get();
+
+            assertEquals("chosen one", component.name);
+            assertEquals("indirect dependency", ((DependencyWithInjectConstructor) component.dependency()).getDependency());
+        }
+
         @Test
         public void should_return_empty_if_component_not_defined() {
             Optional<TestComponent> component = config.getContext().get(ComponentRef.of(TestComponent.class));
@@ -236,6 +275,108 @@ class ContextTest {
                 assertSame(context.get(ComponentRef.of(Dependency.class)).get(), context.get(ComponentRef.of(Dependency.class)).get());
             }
 
+            @Singleton
+            static class SlowSingleton {
+                static final AtomicInteger created = new AtomicInteger();
+
+                public SlowSingleton() throws InterruptedException {
+                    created.incrementAndGet();
+                    Thread.sleep(1);
+                }
+            }
+
+            @Singleton
+            static class SingletonDependsOnSlowSingleton {
+                @Inject
+                SlowSingleton singleton;
+            }
+
+            @RepeatedTest(20)
+            public void should_construct_singleton_once_under_concurrent_first_access() throws Exception {
+                SlowSingleton.created.set(0);
+                config.component(SlowSingleton.class, SlowSingleton.class);
+                config.component(SingletonDependsOnSlowSingleton.class, SingletonDependsOnSlowSingleton.class);
+                Context context = config.getContext();
+
+                int threads = 32;
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                    CountDownLatch start = new CountDownLatch(1);
+                    List<Future<Object>> futures = new ArrayList<>();
+                    for (int i = 0; i < threads; i++) {
+                        Class<?> type = i % 2 == 0 ? SlowSingleton.class : SingletonDependsOnSlowSingleton.class;
+                        futures.add(executor.submit(() -> {
+                            start.await();
+                            Object component = context.get(ComponentRef.of(type)).get();
+                            return component instanceof SingletonDependsOnSlowSingleton dependent ? dependent.singleton : component;
+                        }));
+                    }
+                    start.countDown();
+
+                    Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+                    for (Future<Object> future : futures) instances.add(future.get(10, TimeUnit.SECONDS));
+
+                    assertEquals(1, instances.size());
+                    assertEquals(1, SlowSingleton.created.get());
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
+            @Singleton
+            static class WaitsForOtherSingleton {
+                static CountDownLatch other;
+
+                public WaitsForOtherSingleton() throws InterruptedException {
+                    assertTrue(other.await(5, TimeUnit.SECONDS));
+                }
+            }
+
+            @Singleton
+            static class OtherSingleton {
+                public OtherSingleton() {
+                    WaitsForOtherSingleton.other.countDown();
+                }
+            }
+
+            @Test
+            public void should_construct_different_singletons_concurrently() throws Exception {
+                WaitsForOtherSingleton.other = new CountDownLatch(1);
+                config.component(WaitsForOtherSingleton.class, WaitsForOtherSingleton.class);
+                config.component(OtherSingleton.class, OtherSingleton.class);
+                Context context = config.getContext();
+
+                ExecutorService executor = Executors.newSingleThreadExecutor();
+                try {
+                    Future<Object> waiting = executor.submit(() -> context.get(ComponentRef.of(WaitsForOtherSingleton.class)).get());
+                    Thread.sleep(50);
+                    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> context.get(ComponentRef.of(OtherSingleton.class)).get());
+                    assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
+            @Singleton
+            static class SingletonResolvesItselfOnConstruction {
+                @Inject
+                public SingletonResolvesItselfOnConstruction(Provider<SingletonResolvesItselfOnConstruction> self) {
+                    self.get();
+                }
+            }
+
+            @Test
+            public void should_throw_exception_if_singleton_resolved_while_constructing_itself() {
+                config.component(SingletonResolvesItselfOnConstruction.class, SingletonResolvesItselfOnConstruction.class);
+                Context context = config.getContext();
+
+                RuntimeException exception = assertThrows(RuntimeException.class,
+                        () -> context.get(ComponentRef.of(SingletonResolvesItselfOnConstruction.class)));
+                Throwable cause = exception;
+                while (cause.getCause() != null) cause = cause.getCause();
+                assertTrue(cause instanceof IllegalStateException);
+            }
+
             // TODO bind component with customize scope annotation
             @Test
             public void should_bind_component_as_customized_scope() {
@@ -311,6 +452,18 @@ class ContextTest {
                     );
         }
 
+        @Test
+        public void should_return_dependencies_before_components_depend_on_them() {
+            config.component(TestComponent.class, ComponentWithInjectConstructor.class);
+            config.component(Dependency.class, DependencyWithInjectConstructor.class);
+            config.instance(String.class, "indirect dependency");
+
+            List<ContextConfig.Component> order = config.checkDependencies();
+
+            assertEquals(List.of(new ContextConfig.Component(String.class, null), new ContextConfig.Component(Dependency.class, null),
+                    new ContextConfig.Component(TestComponent.class, null)), order);
+        }
+
         static class MissingDependencyConstructor implements TestComponent {
             @Inject
             public MissingDependencyConstructor(Dependency dependency) {
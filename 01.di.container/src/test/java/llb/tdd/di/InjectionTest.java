@@ -6,9 +6,13 @@ import jakarta.inject.Provider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mockito;
 
 import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.*;
@@ -463,4 +467,78 @@ public class InjectionTest {
             }
         }
     }
+
+    @Nested
+    public class CompiledInjection {
+        static class SuperComponent {
+            List<String> injected = new ArrayList<>();
+            Dependency superField;
+
+            @Inject
+            void setSuperField(Dependency dependency) {
+                superField = dependency;
+            }
+
+            @Inject
+            void installSuper() {
+                injected.add("super:" + (superField != null));
+            }
+        }
+
+        static class Component extends SuperComponent {
+            final Dependency constructed;
+            @Inject
+            String value;
+            Provider<Dependency> provider;
+
+            @Inject
+            Component(Dependency dependency) {
+                constructed = dependency;
+            }
+
+            @Inject
+            private int install(Provider<Dependency> provider, @Named("ChoseOne") Dependency dependency) {
+                this.provider = provider;
+                injected.add("sub:" + (value != null) + ":" + (dependency == constructed));
+                return 0;
+            }
+        }
+
+        @BeforeEach
+        public void before() {
+            when(context.get(eq(ComponentRef.of(String.class)))).thenReturn(Optional.of("value"));
+            when(context.get(eq(ComponentRef.of(Dependency.class, new NamedLiteral("ChoseOne"))))).thenReturn(Optional.of(dependency));
+        }
+
+        @Test
+        public void should_inject_constructor_fields_and_methods_in_declaration_order() {
+            Component component = new InjectionProvider<>(Component.class, ContextConfig.Injection.Compiled).get(context);
+
+            assertSame(dependency, component.constructed);
+            assertSame(dependency, component.superField);
+            assertEquals("value", component.value);
+            assertSame(dependencyProvider, component.provider);
+            assertEquals(List.of("super:true", "sub:true:true"), component.injected);
+        }
+
+        @Test
+        public void should_include_same_dependencies_as_reflective_injection() {
+            assertEquals(new InjectionProvider<>(Component.class).getDependencies(),
+                    new InjectionProvider<>(Component.class, ContextConfig.Injection.Compiled).getDependencies());
+        }
+
+        static class FailedConstructor {
+            public FailedConstructor() {
+                throw new IllegalStateException();
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(ContextConfig.Injection.class)
+        public void should_wrap_exception_thrown_while_injecting(ContextConfig.Injection injection) {
+            RuntimeException exception = assertThrows(RuntimeException.class,
+                    () -> new InjectionProvider<>(FailedConstructor.class, injection).get(context));
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 缓存 MessageBodyWriter 与 ExceptionMapper 的查找结果
+ * @ClassName: CachingProviders
+ * @date 2022-11-23 下午7:20
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class CachingProviders implements Providers {
+	private final Providers providers;
+	private final Map<WriterKey, MessageBodyWriter<?>> writers = new ConcurrentHashMap<>();
+	private final Map<Class<?>, ExceptionMapper<?>> mappers = new ConcurrentHashMap<>();
+
+	CachingProviders(Providers providers) {
+		this.providers = providers;
+	}
+
+	Providers getProviders() {
+		return providers;
+	}
+
+	@Override
+	public <T> MessageBodyWriter<T> getMessageBodyWriter(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		WriterKey key = new WriterKey(type, genericType, annotations, mediaType);
+		MessageBodyWriter<?> writer = writers.get(key);
+		if (writer != null) return (MessageBodyWriter<T>) writer;
+		writer = providers.getMessageBodyWriter(type, genericType, annotations, mediaType);
+		if (writer != null) writers.putIfAbsent(key, writer);
+		return (MessageBodyWriter<T>) writer;
+	}
+
+	@Override
+	public <T extends Throwable> ExceptionMapper<T> getExceptionMapper(Class<T> type) {
+		ExceptionMapper<?> mapper = mappers.get(type);
+		if (mapper != null) return (ExceptionMapper<T>) mapper;
+		mapper = providers.getExceptionMapper(type);
+		if (mapper != null) mappers.putIfAbsent(type, mapper);
+		return (ExceptionMapper<T>) mapper;
+	}
+
+	@Override
+	public <T> MessageBodyReader<T> getMessageBodyReader(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return providers.getMessageBodyReader(type, genericType, annotations, mediaType);
+	}
+
+	@Override
+	public <T> ContextResolver<T> getContextResolver(Class<T> contextType, MediaType mediaType) {
+		return providers.getContextResolver(contextType, mediaType);
+	}
+
+	private record WriterKey(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof WriterKey key && type == key.type && Objects.equals(genericType, key.genericType)
+					&& Objects.equals(mediaType, key.mediaType) && Arrays.equals(annotations, key.annotations);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * type.hashCode() + Objects.hashCode(mediaType)) + Arrays.hashCode(annotations);
+		}
+	}
+}
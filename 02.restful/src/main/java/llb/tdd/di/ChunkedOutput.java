@@ -0,0 +1,199 @@
+package llb.tdd.di;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 将 Iterator / Flow.Publisher 的分块按 WriteListener 的节奏写出, 每块写完即 flush
+ * @ClassName: ChunkedOutput
+ * @date 2022-11-27 下午2:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class ChunkedOutput implements WriteListener, Flow.Subscriber<Object> {
+	private final ServletOutputStream output;
+	private final Encoder encoder;
+	private AsyncContext context;
+	private Iterator<?> iterator;
+	private Flow.Subscription subscription;
+	private byte[] pending;
+	private boolean listening;
+	private boolean draining;
+	private boolean requested;
+	private boolean completed;
+	private boolean finished;
+
+	ChunkedOutput(ServletOutputStream output, Encoder encoder) {
+		this.output = output;
+		this.encoder = encoder;
+	}
+
+	static boolean isChunked(Object entity) {
+		return entity instanceof Iterator<?> || entity instanceof Flow.Publisher<?>;
+	}
+
+	void start(Object chunks, AsyncContext context) {
+		this.context = context;
+		if (chunks instanceof Iterator<?> iterator) this.iterator = iterator;
+		else ((Flow.Publisher<?>) chunks).subscribe(this);
+		synchronized (this) {
+			listening = true;
+		}
+		output.setWriteListener(this);
+	}
+
+	void write(Object chunks) throws IOException {
+		if (chunks instanceof Iterator<?> iterator) {
+			while (iterator.hasNext()) {
+				output.write(encoder.encode(iterator.next()));
+				output.flush();
+			}
+			return;
+		}
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		((Flow.Publisher<?>) chunks).subscribe(new Flow.Subscriber<Object>() {
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(Object item) {
+				try {
+					output.write(encoder.encode(item));
+					output.flush();
+					subscription.request(1);
+				} catch (IOException e) {
+					subscription.cancel();
+					done.completeExceptionally(e);
+				}
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				done.completeExceptionally(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				done.complete(null);
+			}
+		});
+		try {
+			done.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException exception) throw exception;
+			throw e;
+		}
+	}
+
+	@Override
+	public synchronized void onWritePossible() throws IOException {
+		drain();
+	}
+
+	@Override
+	public synchronized void onError(Throwable throwable) {
+		fail(throwable);
+	}
+
+	@Override
+	public synchronized void onSubscribe(Flow.Subscription subscription) {
+		this.subscription = subscription;
+		if (finished) subscription.cancel();
+		else resume();
+	}
+
+	@Override
+	public synchronized void onNext(Object item) {
+		requested = false;
+		try {
+			pending = encoder.encode(item);
+		} catch (IOException e) {
+			fail(e);
+			return;
+		}
+		resume();
+	}
+
+	@Override
+	public synchronized void onComplete() {
+		completed = true;
+		resume();
+	}
+
+	private void resume() {
+		if (!listening || draining) return;
+		try {
+			drain();
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	private void drain() throws IOException {
+		if (finished) return;
+		draining = true;
+		try {
+			while (output.isReady()) {
+				if (pending != null) {
+					byte[] chunk = pending;
+					pending = null;
+					output.write(chunk);
+					// 非阻塞模式下 flush 只能在 isReady() 之后调用, 否则留给下一次 onWritePossible
+					if (output.isReady()) output.flush();
+				} else if (iterator != null) {
+					if (!iterator.hasNext()) {
+						finish();
+						return;
+					}
+					pending = encoder.encode(iterator.next());
+				} else if (completed) {
+					finish();
+					return;
+				} else {
+					if (subscription == null || requested) return;
+					requested = true;
+					subscription.request(1);
+					if (pending == null && !completed) return;
+				}
+			}
+		} finally {
+			draining = false;
+		}
+	}
+
+	private void finish() {
+		finished = true;
+		context.complete();
+	}
+
+	private void fail(Throwable throwable) {
+		if (finished) return;
+		finished = true;
+		if (subscription != null) subscription.cancel();
+		HttpServletResponse response = (HttpServletResponse) context.getResponse();
+		if (!response.isCommitted()) {
+			response.reset();
+			response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		}
+		context.complete();
+	}
+
+	interface Encoder {
+		byte[] encode(Object chunk) throws IOException;
+	}
+}
@@ -0,0 +1,225 @@
+package llb.tdd.di;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 按 Accept-Encoding 协商 gzip / deflate 响应压缩, Deflater 池化复用
+ * @ClassName: Compression
+ * @date 2022-12-01 下午8:15
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public final class Compression {
+	public static final int DefaultMinSize = 1024;
+	private static final int BufferSize = 8192;
+	private static final byte[] GzipHeader = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+	enum Encoding {
+		Identity(null), Gzip("gzip"), Deflate("deflate");
+
+		final String token;
+
+		Encoding(String token) {
+			this.token = token;
+		}
+	}
+
+	private final Set<String> mediaTypes;
+	private volatile int minSize = DefaultMinSize;
+	private volatile int level = Deflater.DEFAULT_COMPRESSION;
+	private final BlockingQueue<Codec> gzip;
+	private final BlockingQueue<Codec> deflate;
+	private final DispatchCache<String, Encoding> encodings = new DispatchCache<>(64);
+
+	public Compression(String... mediaTypes) {
+		this.mediaTypes = Set.of(mediaTypes);
+		int pool = 2 * java.lang.Runtime.getRuntime().availableProcessors();
+		this.gzip = new ArrayBlockingQueue<>(pool);
+		this.deflate = new ArrayBlockingQueue<>(pool);
+	}
+
+	public void minSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public void level(int level) {
+		this.level = level;
+	}
+
+	boolean isCompressible(MediaType mediaType) {
+		if (mediaType == null) return false;
+		return mediaTypes.contains(mediaType.getType() + "/" + mediaType.getSubtype()) || mediaTypes.contains(mediaType.getType() + "/*");
+	}
+
+	boolean compresses(long length) {
+		return length >= minSize;
+	}
+
+	Encoding negotiate(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isBlank()) return Encoding.Identity;
+		Encoding encoding = encodings.get(acceptEncoding);
+		if (encoding == null) encodings.put(acceptEncoding, encoding = parse(acceptEncoding));
+		return encoding;
+	}
+
+	private static Encoding parse(String acceptEncoding) {
+		double gzip = -1, deflate = -1, any = 0;
+		for (String coding : acceptEncoding.split(",")) {
+			int parameters = coding.indexOf(';');
+			String token = (parameters < 0 ? coding : coding.substring(0, parameters)).trim().toLowerCase();
+			double quality = parameters < 0 ? 1 : quality(coding.substring(parameters + 1).trim());
+			switch (token) {
+				case "gzip", "x-gzip" -> gzip = quality;
+				case "deflate" -> deflate = quality;
+				case "*" -> any = quality;
+			}
+		}
+		if (gzip < 0) gzip = any;
+		if (deflate < 0) deflate = any;
+		if (gzip > 0 && gzip >= deflate) return Encoding.Gzip;
+		return deflate > 0 ? Encoding.Deflate : Encoding.Identity;
+	}
+
+	private static double quality(String parameter) {
+		if (!parameter.startsWith("q=")) return 1;
+		try {
+			return Double.parseDouble(parameter.substring(2));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	static Path precompressed(Object entity) {
+		Path path = entity instanceof Path p ? p : entity instanceof File f ? f.toPath() : null;
+		if (path == null) return null;
+		Path variant = path.resolveSibling(path.getFileName() + ".gz");
+		return Files.isRegularFile(variant) ? variant : null;
+	}
+
+	CompressingOutputStream compress(HttpServletResponse resp, OutputStream out, Encoding encoding) {
+		return new CompressingOutputStream(resp, out, encoding, acquire(encoding));
+	}
+
+	private Codec acquire(Encoding encoding) {
+		Codec codec = pool(encoding).poll();
+		return codec != null ? codec : new Codec(new Deflater(level, encoding == Encoding.Gzip), Math.max(minSize, BufferSize));
+	}
+
+	private void release(Encoding encoding, Codec codec) {
+		codec.deflater.reset();
+		codec.crc.reset();
+		if (!pool(encoding).offer(codec)) codec.deflater.end();
+	}
+
+	private BlockingQueue<Codec> pool(Encoding encoding) {
+		return encoding == Encoding.Gzip ? gzip : deflate;
+	}
+
+	int pooled(Encoding encoding) {
+		return pool(encoding).size();
+	}
+
+	private record Codec(Deflater deflater, CRC32 crc, byte[] pending, byte[] buffer) {
+		Codec(Deflater deflater, int pending) {
+			this(deflater, new CRC32(), new byte[pending], new byte[BufferSize]);
+		}
+	}
+
+	final class CompressingOutputStream extends OutputStream {
+		private final HttpServletResponse resp;
+		private final OutputStream out;
+		private final Encoding encoding;
+		private Codec codec;
+		private int count;
+		private boolean started;
+
+		private CompressingOutputStream(HttpServletResponse resp, OutputStream out, Encoding encoding, Codec codec) {
+			this.resp = resp;
+			this.out = out;
+			this.encoding = encoding;
+			this.codec = codec;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (codec == null) throw new IOException("Stream closed");
+			if (!started && count + len < Math.min(minSize, codec.pending.length)) {
+				System.arraycopy(b, off, codec.pending, count, len);
+				count += len;
+				return;
+			}
+			if (!started) start();
+			deflate(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (codec == null) return;
+			try {
+				if (!started) {
+					resp.setContentLength(count);
+					out.write(codec.pending, 0, count);
+					return;
+				}
+				Deflater deflater = codec.deflater;
+				deflater.finish();
+				while (!deflater.finished()) drain();
+				if (encoding == Encoding.Gzip) trailer();
+			} finally {
+				release();
+			}
+		}
+
+		void release() {
+			if (codec == null) return;
+			Compression.this.release(encoding, codec);
+			codec = null;
+		}
+
+		private void start() throws IOException {
+			started = true;
+			resp.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token);
+			resp.setContentLengthLong(-1);
+			if (encoding == Encoding.Gzip) out.write(GzipHeader);
+			deflate(codec.pending, 0, count);
+		}
+
+		private void deflate(byte[] b, int off, int len) throws IOException {
+			if (len == 0) return;
+			if (encoding == Encoding.Gzip) codec.crc.update(b, off, len);
+			codec.deflater.setInput(b, off, len);
+			while (!codec.deflater.needsInput()) drain();
+		}
+
+		private void drain() throws IOException {
+			int length = codec.deflater.deflate(codec.buffer, 0, codec.buffer.length, Deflater.NO_FLUSH);
+			if (length > 0) out.write(codec.buffer, 0, length);
+		}
+
+		private void trailer() throws IOException {
+			int crc = (int) codec.crc.getValue(), size = (int) codec.deflater.getBytesRead();
+			out.write(new byte[]{(byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24),
+					(byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)});
+		}
+	}
+}
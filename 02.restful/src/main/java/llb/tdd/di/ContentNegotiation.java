@@ -0,0 +1,133 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 解析并缓存 Accept, 按 @Produces / @Consumes 选择资源方法
+ * @ClassName: ContentNegotiation
+ * @date 2022-11-30 下午7:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class ContentNegotiation {
+	static final List<Range> AnyType = List.of(new Range("*", "*", 1));
+	static final Accept Any = new Accept(AnyType);
+
+	private static final DispatchCache<String, Accept> accepts = new DispatchCache<>(256);
+
+	static Accept accept(String[] headers) {
+		if (headers.length == 0) return Any;
+		String header = headers.length == 1 ? headers[0] : String.join(",", headers);
+		if (header.equals("*/*")) return Any;
+		Accept accept = accepts.get(header);
+		if (accept == null) accepts.put(header, accept = new Accept(parse(header)));
+		return accept;
+	}
+
+	static List<Range> produces(Method method) {
+		Produces produces = method.isAnnotationPresent(Produces.class) ? method.getAnnotation(Produces.class)
+				: method.getDeclaringClass().getAnnotation(Produces.class);
+		return produces == null ? AnyType : parse(String.join(",", produces.value()));
+	}
+
+	static List<Range> consumes(Method method) {
+		Consumes consumes = method.isAnnotationPresent(Consumes.class) ? method.getAnnotation(Consumes.class)
+				: method.getDeclaringClass().getAnnotation(Consumes.class);
+		return consumes == null ? AnyType : parse(String.join(",", consumes.value()));
+	}
+
+	static boolean accepts(List<Range> consumes, String contentType) {
+		if (consumes == AnyType || contentType == null) return true;
+		List<Range> ranges = parse(contentType);
+		return ranges.isEmpty() || consumes.stream().anyMatch(range -> range.includes(ranges.get(0)));
+	}
+
+	static List<Range> parse(String header) {
+		List<Range> ranges = new ArrayList<>();
+		int start = 0;
+		while (start <= header.length()) {
+			int end = header.indexOf(',', start);
+			if (end < 0) end = header.length();
+			Range range = range(header, start, end);
+			if (range != null) ranges.add(range);
+			start = end + 1;
+		}
+		ranges.sort(Comparator.comparingInt(Range::specificity).reversed().thenComparing(Comparator.comparingDouble(Range::quality).reversed()));
+		return List.copyOf(ranges);
+	}
+
+	private static Range range(String header, int start, int end) {
+		int parameters = header.indexOf(';', start);
+		if (parameters < 0 || parameters > end) parameters = end;
+		int slash = header.indexOf('/', start);
+		if (slash < 0 || slash > parameters) return null;
+		String type = header.substring(start, slash).trim(), subtype = header.substring(slash + 1, parameters).trim();
+		if (type.isEmpty() || subtype.isEmpty()) return null;
+		double quality = 1;
+		while (parameters < end) {
+			int next = header.indexOf(';', parameters + 1);
+			if (next < 0 || next > end) next = end;
+			String parameter = header.substring(parameters + 1, next).trim();
+			if (parameter.startsWith("q=")) quality = quality(parameter.substring(2));
+			parameters = next;
+		}
+		return new Range(type.toLowerCase(), subtype.toLowerCase(), quality);
+	}
+
+	private static double quality(String value) {
+		try {
+			double quality = Double.parseDouble(value);
+			return quality < 0 || quality > 1 ? 0 : quality;
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	record Range(String type, String subtype, double quality) {
+		boolean includes(Range other) {
+			return (type.equals("*") || type.equals(other.type)) && (subtype.equals("*") || subtype.equals(other.subtype) || other.subtype.equals("*"))
+					|| other.type.equals("*");
+		}
+
+		int specificity() {
+			return (type.equals("*") ? 0 : 2) + (subtype.equals("*") ? 0 : 1);
+		}
+	}
+
+	static final class Accept {
+		private final List<Range> ranges;
+		private final Map<List<? extends ResourceRouter.ResourceMethod>, List<ResourceRouter.ResourceMethod>> selections = new ConcurrentHashMap<>();
+
+		Accept(List<Range> ranges) {
+			this.ranges = ranges;
+		}
+
+		double quality(List<Range> produces) {
+			double quality = 0;
+			for (Range produced : produces)
+				for (Range range : ranges)
+					if (range.includes(produced)) {
+						quality = Math.max(quality, range.quality());
+						break;
+					}
+			return quality;
+		}
+
+		List<ResourceRouter.ResourceMethod> select(List<? extends ResourceRouter.ResourceMethod> methods) {
+			if (this == Any) return (List<ResourceRouter.ResourceMethod>) methods;
+			return selections.computeIfAbsent(methods, key -> key.stream().filter(method -> quality(method.getProduces()) > 0)
+					.sorted(Comparator.comparingDouble(method -> -quality(method.getProduces())))
+					.map(ResourceRouter.ResourceMethod.class::cast).toList());
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.ext.ParamConverter;
+import jakarta.ws.rs.ext.ParamConverterProvider;
+
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static llb.tdd.di.MethodInvoker.ValueConverter.singeValued;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 参数类型的转换器只解析一次(包括不可转换的类型); 自定义转换器通过 register 或
+ * ParamConverterProvider 服务注册, 优先于内置转换器; 资源模型已解析过的类型不能再注册
+ * @ClassName: Converters
+ * @date 2022-11-14 下午7:40
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public final class Converters {
+	private static final List<ParamConverterProvider> providers = ServiceLoader.load(ParamConverterProvider.class)
+			.stream().map(ServiceLoader.Provider::get).toList();
+	private static final Map<Class<?>, ParamConverter<?>> registered = new ConcurrentHashMap<>();
+	private static final Set<Class<?>> resolved = ConcurrentHashMap.newKeySet();
+	private static final ClassValue<Optional<MethodInvoker.ValueConverter<Object>>> builtin = new ClassValue<>() {
+		@Override
+		protected Optional<MethodInvoker.ValueConverter<Object>> computeValue(Class<?> type) {
+			Optional<MethodInvoker.ValueConverter<Object>> constructor = constructor(type);
+			Optional<MethodInvoker.ValueConverter<Object>> factory = factory(type);
+			return PrimitiveConverter.converter(type)
+					.or(() -> constructor.map(c -> factory.map(c::or).orElse(c)))
+					.or(() -> factory);
+		}
+	};
+	private static final ClassValue<Optional<MethodInvoker.ValueConverter<Object>>> constructors = new ClassValue<>() {
+		@Override
+		protected Optional<MethodInvoker.ValueConverter<Object>> computeValue(Class<?> type) {
+			return ConverterConstructor.converter(type);
+		}
+	};
+	private static final ClassValue<Optional<MethodInvoker.ValueConverter<Object>>> factories = new ClassValue<>() {
+		@Override
+		protected Optional<MethodInvoker.ValueConverter<Object>> computeValue(Class<?> type) {
+			return ConverterFactory.converter(type);
+		}
+	};
+
+	private Converters() {
+	}
+
+	public static <T> void register(Class<T> type, ParamConverter<T> converter) {
+		registered.put(type, converter);
+		if (!resolved.contains(type)) return;
+		registered.remove(type, converter);
+		throw new IllegalStateException("Converter for " + type.getName() + " registered after resource models using it were built");
+	}
+
+	static Optional<MethodInvoker.ValueConverter<Object>> converter(Parameter parameter) {
+		resolved.add(parameter.getType());
+		return custom(parameter).or(() -> builtin.get(parameter.getType()));
+	}
+
+	static Optional<MethodInvoker.ValueConverter<Object>> constructor(Class<?> type) {
+		return constructors.get(type);
+	}
+
+	static Optional<MethodInvoker.ValueConverter<Object>> factory(Class<?> type) {
+		return factories.get(type);
+	}
+
+	private static Optional<MethodInvoker.ValueConverter<Object>> custom(Parameter parameter) {
+		ParamConverter<?> converter = registered.get(parameter.getType());
+		for (int i = 0; converter == null && i < providers.size(); i++)
+			converter = providers.get(i).getConverter(parameter.getType(), parameter.getParameterizedType(), parameter.getAnnotations());
+		return Optional.ofNullable(converter).map(Converters::bound);
+	}
+
+	private static MethodInvoker.ValueConverter<Object> bound(ParamConverter<?> converter) {
+		return singeValued(converter::fromString);
+	}
+}
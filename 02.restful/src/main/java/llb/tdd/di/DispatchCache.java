@@ -0,0 +1,94 @@
+package llb.tdd.di;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 分段加锁的定长 LRU 缓存, 用于分发结果、Accept 与 Accept-Encoding 解析等
+ * @ClassName: DispatchCache
+ * @date 2022-11-21 下午8:10
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class DispatchCache<K, V> {
+	private static final int MaxStripes = 16;
+	private final Stripe<K, V>[] stripes;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	DispatchCache(int size) {
+		if (size <= 0) throw new IllegalArgumentException("Cache size must be positive: " + size);
+		int count = Math.min(MaxStripes, size);
+		this.stripes = stripes(count);
+		for (int i = 0; i < count; i++) stripes[i] = new Stripe<>(size / count + (i < size % count ? 1 : 0), evictions);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Stripe<K, V>[] stripes(int count) {
+		return (Stripe<K, V>[]) new Stripe<?, ?>[count];
+	}
+
+	V get(K key) {
+		V value = stripe(key).get(key);
+		(value == null ? misses : hits).increment();
+		return value;
+	}
+
+	void put(K key, V value) {
+		stripe(key).put(key, value);
+	}
+
+	long getHits() {
+		return hits.sum();
+	}
+
+	long getMisses() {
+		return misses.sum();
+	}
+
+	long getEvictions() {
+		return evictions.sum();
+	}
+
+	int size() {
+		int size = 0;
+		for (Stripe<K, V> stripe : stripes) size += stripe.size();
+		return size;
+	}
+
+	private Stripe<K, V> stripe(K key) {
+		int hash = key.hashCode();
+		return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+	}
+
+	private static class Stripe<K, V> {
+		private final LinkedHashMap<K, V> entries;
+
+		Stripe(int capacity, LongAdder evictions) {
+			this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+					if (size() <= capacity) return false;
+					evictions.increment();
+					return true;
+				}
+			};
+		}
+
+		synchronized V get(K key) {
+			return entries.get(key);
+		}
+
+		synchronized void put(K key, V value) {
+			entries.put(key, value);
+		}
+
+		synchronized int size() {
+			return entries.size();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+import java.util.Objects;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 预先编码的响应头值, 写出时不再经过 HeaderDelegate 转换
+ * @ClassName: EncodedHeader
+ * @date 2022-11-22 下午7:40
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public final class EncodedHeader {
+	private final String value;
+
+	private EncodedHeader(String value) {
+		this.value = Objects.requireNonNull(value);
+	}
+
+	public static EncodedHeader of(String value) {
+		return new EncodedHeader(value);
+	}
+
+	public static <T> EncodedHeader encode(T value) {
+		RuntimeDelegate.HeaderDelegate<T> delegate = (RuntimeDelegate.HeaderDelegate<T>) RuntimeDelegate.getInstance().createHeaderDelegate(value.getClass());
+		return new EncodedHeader(delegate.toString(value));
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof EncodedHeader header && value.equals(header.value);
+	}
+
+	@Override
+	public int hashCode() {
+		return value.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return value;
+	}
+}
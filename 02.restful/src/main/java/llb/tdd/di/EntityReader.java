@@ -0,0 +1,160 @@
+package llb.tdd.di;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.container.ResourceContext;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.Providers;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 把请求体绑定到资源方法的实体参数, 限制请求体大小
+ * @ClassName: EntityReader
+ * @date 2022-11-29 下午7:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class EntityReader implements MethodInvoker.ParameterBinder {
+	static final String MaxEntitySize = EntityReader.class.getName() + ".maxEntitySize";
+	static final long DefaultMaxEntitySize = 10L * 1024 * 1024;
+	private static final int MaxReaders = 64;
+
+	private final Class<?> type;
+	private final Type genericType;
+	private final Annotation[] annotations;
+	private final long maxEntitySize;
+	private volatile Readers readers = new Readers(null);
+
+	EntityReader(Parameter parameter) {
+		this(parameter, -1);
+	}
+
+	EntityReader(Parameter parameter, long maxEntitySize) {
+		this.type = parameter.getType();
+		this.genericType = parameter.getParameterizedType();
+		this.annotations = parameter.getAnnotations();
+		this.maxEntitySize = maxEntitySize;
+	}
+
+	@Override
+	public Object bind(ResourceContext resourceContext, UriInfo uriInfo) {
+		HttpServletRequest request = request(resourceContext);
+		long maxEntitySize = maxEntitySize(request);
+		if (request.getContentLengthLong() > maxEntitySize) throw tooLarge();
+		try {
+			InputStream stream = new BoundedInputStream(request.getInputStream(), maxEntitySize);
+			if (type == InputStream.class) return stream;
+			if (type == ReadableByteChannel.class) return Channels.newChannel(stream);
+			MediaType mediaType = mediaType(request.getContentType());
+			MessageBodyReader reader = reader(resourceContext.getResource(Providers.class), mediaType);
+			if (reader == null) throw new StacklessWebApplicationException(Response.Status.UNSUPPORTED_MEDIA_TYPE.getStatusCode());
+			return reader.readFrom(type, genericType, annotations, mediaType, headers(request), stream);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private long maxEntitySize(HttpServletRequest request) {
+		if (maxEntitySize >= 0) return maxEntitySize;
+		return request.getAttribute(MaxEntitySize) instanceof Long limit ? limit : DefaultMaxEntitySize;
+	}
+
+	private static MediaType mediaType(String contentType) {
+		if (contentType == null) return MediaType.APPLICATION_OCTET_STREAM_TYPE;
+		try {
+			return MediaType.valueOf(contentType);
+		} catch (IllegalArgumentException e) {
+			throw new StacklessWebApplicationException(Response.Status.BAD_REQUEST.getStatusCode());
+		}
+	}
+
+	private MessageBodyReader<?> reader(Providers providers, MediaType mediaType) {
+		Readers readers = this.readers;
+		if (readers.providers != providers) this.readers = readers = new Readers(providers);
+		String key = mediaType.getType() + "/" + mediaType.getSubtype();
+		MessageBodyReader<?> reader = readers.readers.get(key);
+		if (reader != null) return reader;
+		reader = providers.getMessageBodyReader(type, genericType, annotations, mediaType);
+		if (reader != null) readers.readers.put(key, reader);
+		return reader;
+	}
+
+	static HttpServletRequest request(ResourceContext resourceContext) {
+		HttpServletRequest request = resourceContext.getResource(HttpServletRequest.class);
+		if (request == null) throw new IllegalStateException("No HttpServletRequest in resource context");
+		return request;
+	}
+
+	private static MultivaluedMap<String, String> headers(HttpServletRequest request) {
+		MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+		for (String name : Collections.list(request.getHeaderNames()))
+			headers.put(name, Collections.list(request.getHeaders(name)));
+		return headers;
+	}
+
+	private static StacklessWebApplicationException tooLarge() {
+		return new StacklessWebApplicationException(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode());
+	}
+
+	private record Readers(Providers providers, DispatchCache<String, MessageBodyReader<?>> readers) {
+		Readers(Providers providers) {
+			this(providers, new DispatchCache<>(MaxReaders));
+		}
+	}
+
+	static class BoundedInputStream extends FilterInputStream {
+		private final long limit;
+		private long read;
+
+		BoundedInputStream(InputStream stream, long limit) {
+			super(stream);
+			this.limit = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) count(1);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) count(n);
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count(skipped);
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		private void count(long n) {
+			read += n;
+			if (read > limit) throw tooLarge();
+		}
+	}
+}
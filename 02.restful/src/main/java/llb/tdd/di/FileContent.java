@@ -0,0 +1,146 @@
+package llb.tdd.di;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.server.HttpOutput;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: Path / File / FileChannel / ByteBuffer 实体直接交给 Jetty 写出, 支持单个 Range
+ * @ClassName: FileContent
+ * @date 2022-11-28 下午7:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class FileContent implements Closeable {
+	private static final long[] Unsatisfiable = new long[0];
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final long length;
+
+	private FileContent(FileChannel channel, ByteBuffer buffer) throws IOException {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.length = channel != null ? channel.size() : buffer.remaining();
+	}
+
+	static boolean isFile(Object entity) {
+		return entity instanceof Path || entity instanceof File || entity instanceof FileChannel || entity instanceof ByteBuffer;
+	}
+
+	static FileContent of(Object entity) throws IOException {
+		if (entity instanceof Path path) return new FileContent(FileChannel.open(path, StandardOpenOption.READ), null);
+		if (entity instanceof File file) return new FileContent(FileChannel.open(file.toPath(), StandardOpenOption.READ), null);
+		if (entity instanceof FileChannel channel) return new FileContent(channel, null);
+		return new FileContent(null, ((ByteBuffer) entity).slice());
+	}
+
+	void send(HttpServletRequest req, HttpServletResponse resp, boolean ranged) throws IOException {
+		long[] range = head(req, resp, ranged, length);
+		if (range != Unsatisfiable) send(resp.getOutputStream(), range[0], range[1]);
+	}
+
+	static long length(Object entity) throws IOException {
+		if (entity instanceof Path path) return Files.size(path);
+		if (entity instanceof File file) return Files.size(file.toPath());
+		if (entity instanceof FileChannel channel) return channel.size();
+		return ((ByteBuffer) entity).remaining();
+	}
+
+	static long[] head(HttpServletRequest req, HttpServletResponse resp, boolean ranged, long length) {
+		resp.setHeader("Accept-Ranges", "bytes");
+		long[] range = ranged ? range(req.getHeader("Range"), length) : null;
+		if (range == Unsatisfiable) {
+			resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+			resp.setHeader("Content-Range", "bytes */" + length);
+			resp.setContentLength(0);
+			return Unsatisfiable;
+		}
+		long start = range == null ? 0 : range[0];
+		long count = range == null ? length : range[1] - range[0] + 1;
+		if (range != null) {
+			resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			resp.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length);
+		}
+		resp.setContentLengthLong(count);
+		return new long[]{start, count};
+	}
+
+	private void send(ServletOutputStream output, long start, long count) throws IOException {
+		if (buffer != null) send(output, buffer.slice((int) start, (int) count));
+		else if (output instanceof HttpOutput http) map(http, start, count);
+		else transfer(output, start, count);
+	}
+
+	private static void send(ServletOutputStream output, ByteBuffer content) throws IOException {
+		if (output instanceof HttpOutput http) http.sendContent(content);
+		else if (content.hasArray()) output.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+		else Channels.newChannel(output).write(content);
+	}
+
+	// 只映射请求的区间, 映射区直接交给 Jetty 写出, 不经过 transferTo 对非文件通道的拷贝循环
+	private void map(HttpOutput output, long start, long count) throws IOException {
+		long end = start + count, size = channel.size();
+		if (size < end) throw new EOFException("File ended after " + Math.max(0, size - start) + " of " + count + " bytes");
+		for (long position = start; position < end; ) {
+			long region = Math.min(end - position, Integer.MAX_VALUE);
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, region);
+			position += region;
+			if (position < end) output.write(mapped);
+			else output.sendContent(mapped);
+		}
+	}
+
+	private void transfer(ServletOutputStream output, long start, long count) throws IOException {
+		WritableByteChannel target = Channels.newChannel(output);
+		for (long position = start, end = start + count; position < end; ) {
+			long transferred = channel.transferTo(position, end - position, target);
+			if (transferred <= 0) throw new EOFException("File ended after " + (position - start) + " of " + count + " bytes");
+			position += transferred;
+		}
+	}
+
+	static long[] range(String header, long length) {
+		if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+		String spec = header.substring("bytes=".length()).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0) return null;
+		try {
+			String first = spec.substring(0, dash).trim(), last = spec.substring(dash + 1).trim();
+			if (first.isEmpty()) {
+				if (last.isEmpty()) return null;
+				long suffix = Long.parseLong(last);
+				if (suffix < 0) return null;
+				if (suffix == 0 || length == 0) return Unsatisfiable;
+				return new long[]{Math.max(0, length - suffix), length - 1};
+			}
+			long start = Long.parseLong(first);
+			if (start < 0 || !last.isEmpty() && Long.parseLong(last) < start) return null;
+			if (start >= length) return Unsatisfiable;
+			return new long[]{start, last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1)};
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel != null) channel.close();
+	}
+}
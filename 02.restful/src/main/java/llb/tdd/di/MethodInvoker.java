@@ -4,16 +4,26 @@ import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.container.ResourceContext;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.UriInfo;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static java.util.Arrays.stream;
 import static llb.tdd.di.MethodInvoker.ValueConverter.singeValued;
@@ -28,55 +38,228 @@ import static llb.tdd.di.MethodInvoker.ValueConverter.singeValued;
  * @Version V1.0
  */
 class MethodInvoker {
-	private static ValueProvider pathParam = (parameter, uriInfo) ->
-			Optional.ofNullable(parameter.getAnnotation(PathParam.class))
-					.map(annotation -> uriInfo.getPathParameters().get(annotation.value()));
-	private static ValueProvider queryParam = (parameter, uriInfo) ->
-			Optional.ofNullable(parameter.getAnnotation(QueryParam.class))
-					.map(annotation -> uriInfo.getQueryParameters().get(annotation.value()));
-	private static List<ValueProvider> providers = List.of(pathParam, queryParam);
-
-	static Object invoke(Method method, ResourceContext resourceContext, UriInfoBuilder builder) {
+	private final ParameterBinder[] binders;
+	private final Invoker invoker;
+	private final int suspended;
+
+	MethodInvoker(Method method) {
+		this(method, Invocation.defaultInvocation());
+	}
+
+	MethodInvoker(Method method, Invocation invocation) {
+		this.binders = stream(method.getParameters()).map(MethodInvoker::binder).toArray(ParameterBinder[]::new);
+		this.invoker = invocation.invoker(method);
+		Parameter[] parameters = method.getParameters();
+		this.suspended = IntStream.range(0, parameters.length).filter(i -> parameters[i].isAnnotationPresent(Suspended.class)).findFirst().orElse(-1);
+	}
+
+	boolean isSuspended() {
+		return suspended >= 0;
+	}
+
+	Object invoke(ResourceContext resourceContext, UriInfoBuilder builder) {
+		UriInfo uriInfo = binders.length == 0 ? null : builder.createUriInfo();
+		Object[] arguments = new Object[binders.length];
+		for (int i = 0; i < binders.length; i++)
+			arguments[i] = binders[i].bind(resourceContext, uriInfo);
+		SuspendedAsyncResponse response = suspended < 0 ? null : new SuspendedAsyncResponse();
+		if (response != null) arguments[suspended] = response;
 		try {
-			UriInfo uriInfo = builder.createUriInfo();
-			return method.invoke(builder.getLastMatchedResource(),
-					stream(method.getParameters()).map(parameter ->
-							injectParameter(parameter, uriInfo)
-									.or(() -> injectContext(parameter, resourceContext, uriInfo))
-									.orElse(null)).toArray(Object[]::new));
-		} catch (InvocationTargetException e) {
-			if(e.getCause() instanceof WebApplicationException) throw (WebApplicationException) e.getCause();
-			throw new RuntimeException(e);
-		} catch (IllegalAccessException e) {
+			Object result = invoker.invoke(builder.getLastMatchedResource(), arguments);
+			return response != null ? response.stage() : result;
+		} catch (WebApplicationException e) {
+			throw e;
+		} catch (Throwable e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-	private static Optional<Object> injectParameter(Parameter parameter, UriInfo uriInfo) {
-		return providers.stream().map(provider -> provider.provide(parameter, uriInfo)).filter(Optional::isPresent)
-				.findFirst()
-				.flatMap(values -> values.flatMap(v -> convert(parameter, v)));
+	enum Invocation {
+		Compiled, Handle, Reflective;
+
+		static Invocation defaultInvocation() {
+			return Invocation.valueOf(System.getProperty("llb.tdd.di.invocation", Compiled.name()));
+		}
+
+		Invoker invoker(Method method) {
+			if (this == Reflective) return reflective(method);
+			try {
+				MethodHandle handle = MethodHandles.lookup().unreflect(method);
+				Invoker compiled = this == Compiled ? compiled(method, handle) : null;
+				return compiled != null ? compiled : handle(method, handle);
+			} catch (IllegalAccessException e) {
+				return reflective(method);
+			}
+		}
+	}
+
+	interface Invoker {
+		Object invoke(Object resource, Object[] arguments) throws Throwable;
 	}
 
-	private static Optional<Object> injectContext(Parameter parameter, ResourceContext resourceContext, UriInfo uriInfo) {
-		if (parameter.getType().equals(ResourceContext.class)) return Optional.of(resourceContext);
-		if (parameter.getType().equals(UriInfo.class)) return Optional.of(uriInfo);
-		return Optional.of(resourceContext.getResource(parameter.getType()));
+	interface Arity0 {
+		Object invoke(Object resource) throws Throwable;
 	}
 
-	private static Optional<Object> convert(Parameter parameter, List<String> values) {
-		return PrimitiveConverter.convert(parameter, values)
-				.or(() -> ConverterConstructor.convert(parameter.getType(), values.get(0)))
-				.or(() -> ConverterFactory.convert(parameter.getType(), values.get(0)));
+	interface Arity1 {
+		Object invoke(Object resource, Object first) throws Throwable;
 	}
 
-	interface ValueProvider {
-		Optional<List<String>> provide(Parameter parameter, UriInfo uriInfo);
+	interface Arity2 {
+		Object invoke(Object resource, Object first, Object second) throws Throwable;
+	}
+
+	interface Arity3 {
+		Object invoke(Object resource, Object first, Object second, Object third) throws Throwable;
+	}
+
+	interface VoidArity0 {
+		void invoke(Object resource) throws Throwable;
+	}
+
+	interface VoidArity1 {
+		void invoke(Object resource, Object first) throws Throwable;
+	}
+
+	interface VoidArity2 {
+		void invoke(Object resource, Object first, Object second) throws Throwable;
+	}
+
+	interface VoidArity3 {
+		void invoke(Object resource, Object first, Object second, Object third) throws Throwable;
+	}
+
+	private static final Class<?>[] Arities = {Arity0.class, Arity1.class, Arity2.class, Arity3.class};
+	private static final Class<?>[] VoidArities = {VoidArity0.class, VoidArity1.class, VoidArity2.class, VoidArity3.class};
+
+	static Invoker compiled(Method method, MethodHandle handle) {
+		int count = method.getParameterCount();
+		if (Modifier.isStatic(method.getModifiers()) || count >= Arities.length) return null;
+		boolean isVoid = method.getReturnType() == void.class;
+		try {
+			MethodType erased = MethodType.genericMethodType(count + 1);
+			CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "invoke",
+					MethodType.methodType((isVoid ? VoidArities : Arities)[count]),
+					isVoid ? erased.changeReturnType(void.class) : erased, handle,
+					isVoid ? handle.type().wrap().changeReturnType(void.class) : handle.type().wrap());
+			Object target = site.getTarget().invoke();
+			return isVoid ? voidInvoker(count, target) : invoker(count, target);
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	private static Invoker invoker(int count, Object target) {
+		return switch (count) {
+			case 0 -> {
+				Arity0 arity = (Arity0) target;
+				yield (resource, arguments) -> arity.invoke(resource);
+			}
+			case 1 -> {
+				Arity1 arity = (Arity1) target;
+				yield (resource, arguments) -> arity.invoke(resource, arguments[0]);
+			}
+			case 2 -> {
+				Arity2 arity = (Arity2) target;
+				yield (resource, arguments) -> arity.invoke(resource, arguments[0], arguments[1]);
+			}
+			default -> {
+				Arity3 arity = (Arity3) target;
+				yield (resource, arguments) -> arity.invoke(resource, arguments[0], arguments[1], arguments[2]);
+			}
+		};
+	}
+
+	private static Invoker voidInvoker(int count, Object target) {
+		return switch (count) {
+			case 0 -> {
+				VoidArity0 arity = (VoidArity0) target;
+				yield (resource, arguments) -> {
+					arity.invoke(resource);
+					return null;
+				};
+			}
+			case 1 -> {
+				VoidArity1 arity = (VoidArity1) target;
+				yield (resource, arguments) -> {
+					arity.invoke(resource, arguments[0]);
+					return null;
+				};
+			}
+			case 2 -> {
+				VoidArity2 arity = (VoidArity2) target;
+				yield (resource, arguments) -> {
+					arity.invoke(resource, arguments[0], arguments[1]);
+					return null;
+				};
+			}
+			default -> {
+				VoidArity3 arity = (VoidArity3) target;
+				yield (resource, arguments) -> {
+					arity.invoke(resource, arguments[0], arguments[1], arguments[2]);
+					return null;
+				};
+			}
+		};
+	}
+
+	private static Invoker handle(Method method, MethodHandle handle) {
+		if (Modifier.isStatic(method.getModifiers())) handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		MethodHandle spreader = handle.asSpreader(Object[].class, method.getParameterCount())
+				.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+		return (resource, arguments) -> spreader.invokeExact(resource, arguments);
+	}
+
+	private static Invoker reflective(Method method) {
+		return (resource, arguments) -> {
+			try {
+				return method.invoke(resource, arguments);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		};
+	}
+
+	private static ParameterBinder binder(Parameter parameter) {
+		if (parameter.isAnnotationPresent(Suspended.class)) return (resourceContext, uriInfo) -> null;
+		if (parameter.getAnnotations().length == 0) return new EntityReader(parameter);
+		ParameterBinder context = context(parameter.getType());
+		PathParam pathParam = parameter.getAnnotation(PathParam.class);
+		if (pathParam != null) return value(UriInfo::getPathParameters, pathParam.value(), parameter, context);
+		QueryParam queryParam = parameter.getAnnotation(QueryParam.class);
+		if (queryParam != null) return value(UriInfo::getQueryParameters, queryParam.value(), parameter, context);
+		return context;
+	}
+
+	private static ParameterBinder value(Function<UriInfo, MultivaluedMap<String, String>> source, String name, Parameter parameter,
+										 ParameterBinder otherwise) {
+		return Converters.converter(parameter).<ParameterBinder>map(converter -> (resourceContext, uriInfo) -> {
+			List<String> values = source.apply(uriInfo).get(name);
+			Object value = values != null ? converter.fromString(values) : null;
+			return value != null ? value : otherwise.bind(resourceContext, uriInfo);
+		}).orElse(otherwise);
+	}
+
+	private static ParameterBinder context(Class<?> type) {
+		if (type.equals(ResourceContext.class)) return (resourceContext, uriInfo) -> resourceContext;
+		if (type.equals(UriInfo.class)) return (resourceContext, uriInfo) -> uriInfo;
+		return (resourceContext, uriInfo) -> resourceContext.getResource(type);
+	}
+
+	interface ParameterBinder {
+		Object bind(ResourceContext resourceContext, UriInfo uriInfo);
 	}
 
 	interface ValueConverter<T> {
 		T fromString(List<String> values);
 
+		default ValueConverter<T> or(ValueConverter<T> other) {
+			return values -> {
+				T value = fromString(values);
+				return value != null ? value : other.fromString(values);
+			};
+		}
+
 		static <T> ValueConverter<T> singeValued(Function<String, T> converter) {
 			return values -> converter.apply(values.get(0));
 		}
@@ -92,27 +275,44 @@ class PrimitiveConverter {
 			byte.class, singeValued(Byte::parseByte),
 			boolean.class, singeValued(Boolean::parseBoolean),
 			String.class, singeValued(s -> s));
-	public static Optional<Object> convert(Parameter parameter, List<String> values) {
-		return Optional.ofNullable(primitives.get(parameter.getType()))
-				.map(c -> c.fromString(values));
+	public static Optional<MethodInvoker.ValueConverter<Object>> converter(Class<?> type) {
+		return Optional.ofNullable(primitives.get(type));
 	}
 }
 class ConverterConstructor {
 	public static Optional<Object> convert(Class<?> converter, String value) {
-		try {
-			return Optional.of(converter.getConstructor(String.class).newInstance(value));
-		} catch (InstantiationException | IllegalAccessException | InvocationTargetException |
-				NoSuchMethodException e) {
-			return Optional.empty();
-		}
+		return Converters.constructor(converter).map(c -> c.fromString(List.of(value)));
+	}
+	static Optional<MethodInvoker.ValueConverter<Object>> converter(Class<?> converter) {
+		return stream(converter.getConstructors())
+				.filter(c -> Arrays.equals(c.getParameterTypes(), new Class<?>[]{String.class})).findFirst()
+				.map(constructor -> singeValued(value -> {
+					try {
+						return constructor.newInstance(value);
+					} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+						return null;
+					}
+				}));
 	}
 }
 class ConverterFactory {
 	public static Optional<Object> convert(Class<?> converter, String value) {
-		try {
-			return Optional.of(converter.getMethod("valueOf", String.class).invoke(null, value));
-		} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-			return Optional.empty();
-		}
+		return Converters.factory(converter).map(c -> c.fromString(List.of(value)));
 	}
-}
\ No newline at end of file
+	static Optional<MethodInvoker.ValueConverter<Object>> converter(Class<?> converter) {
+		return factory(converter, "valueOf").or(() -> factory(converter, "fromString"))
+				.map(factory -> singeValued(value -> {
+					try {
+						return factory.invoke(null, value);
+					} catch (IllegalAccessException | InvocationTargetException e) {
+						return null;
+					}
+				}));
+	}
+	private static Optional<Method> factory(Class<?> converter, String name) {
+		return stream(converter.getMethods()).filter(m -> m.getName().equals(name) && Modifier.isStatic(m.getModifiers())
+						&& Arrays.equals(m.getParameterTypes(), new Class<?>[]{String.class})
+						&& converter.isAssignableFrom(m.getReturnType()))
+				.findFirst();
+	}
+}
@@ -10,7 +10,10 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -33,36 +36,73 @@ interface ResourceRouter {
 	interface ResourceMethod extends UriHandler {
 		String getHttpMethod();
 		GenericEntity<?> call(ResourceContext resourceContext, UriInfoBuilder builder);
+		default List<ContentNegotiation.Range> getProduces() {
+			return ContentNegotiation.AnyType;
+		}
 	}
 }
 class DefaultResourceRouter implements ResourceRouter {
 	private Runtime runtime;
-	private List<Resource> rootResources;
+	private UriHandlerTree<Resource> rootResources;
+	private DispatchCache<DispatchKey, Dispatch> dispatches;
 	public DefaultResourceRouter(Runtime runtime, List<Resource> rootResources) {
 		this.runtime = runtime;
-		this.rootResources = rootResources;
+		this.rootResources = new UriHandlerTree<>(rootResources);
+		int cacheSize = runtime.getDispatchCacheSize();
+		this.dispatches = cacheSize > 0 ? new DispatchCache<>(cacheSize) : null;
 	}
 	@Override
 	public OutboundResponse dispatch(HttpServletRequest request, ResourceContext resourceContext) {
 		String path = request.getServletPath();
 		UriInfoBuilder uri = runtime.createUriInfoBuilder(request);
-		Optional<ResourceMethod> method = UriHandlers.mapMatched(path, rootResources, (result, resource) -> findResourceMethod(request, resourceContext, uri, result, resource));
-		if (method.isEmpty()) return (OutboundResponse) Response.status(Response.Status.NOT_FOUND).build();
+		String[] mediaTypes = Collections.list(request.getHeaders(HttpHeaders.ACCEPT)).toArray(String[]::new);
+		Optional<ResourceMethod> method = dispatches == null ? findResourceMethod(path, request.getMethod(), mediaTypes, resourceContext, uri)
+				: findCachedResourceMethod(path, request.getMethod(), mediaTypes, resourceContext, uri);
+		if (method.isEmpty()) return StatusResponse.NotFound;
 		return (OutboundResponse) method.map(m -> m.call(resourceContext, uri))
 				.map(entity -> (entity.getEntity() instanceof OutboundResponse) ? (OutboundResponse) entity.getEntity() : Response.ok(entity).build())
 				.orElseGet(() -> Response.noContent().build());
 	}
-	private Optional<ResourceMethod> findResourceMethod(HttpServletRequest request, ResourceContext resourceContext, UriInfoBuilder uri, Optional<UriTemplate.MatchResult> matched, Resource handler) {
-		return handler.match(matched.get(), request.getMethod(),
-				Collections.list(request.getHeaders(HttpHeaders.ACCEPT)).toArray(String[]::new), resourceContext, uri);
+	Optional<DispatchCache<?, ?>> getDispatchCache() {
+		return Optional.ofNullable(dispatches);
+	}
+	private Optional<ResourceMethod> findResourceMethod(String path, String httpMethod, String[] mediaTypes, ResourceContext resourceContext, UriInfoBuilder uri) {
+		return UriHandlers.mapMatched(path, rootResources.candidates(path), (result, resource) -> resource.match(result.get(), httpMethod, mediaTypes, resourceContext, uri));
+	}
+	private Optional<ResourceMethod> findCachedResourceMethod(String path, String httpMethod, String[] mediaTypes, ResourceContext resourceContext, UriInfoBuilder uri) {
+		DispatchKey key = new DispatchKey(httpMethod, path, String.join(",", mediaTypes));
+		Dispatch dispatch = dispatches.get(key);
+		if (dispatch != null) {
+			dispatch.resource().enter(dispatch.pathParameters(), resourceContext, uri);
+			return Optional.of(dispatch.method());
+		}
+		return UriHandlers.mapMatched(path, rootResources.candidates(path), (result, resource) -> {
+			if (!(resource instanceof ResourceHandler handler)) return resource.match(result.get(), httpMethod, mediaTypes, resourceContext, uri);
+			handler.enter(result.get().getMatchedPathParameters(), resourceContext, uri);
+			Optional<ResourceMethod> direct = handler.findResourceMethod(result.get(), httpMethod, mediaTypes);
+			direct.ifPresent(method -> dispatches.put(key, new Dispatch(handler, Map.copyOf(result.get().getMatchedPathParameters()), method)));
+			return direct.or(() -> handler.findSubResourceMethod(result.get(), httpMethod, mediaTypes, resourceContext, uri));
+		});
+	}
+	record DispatchKey(String httpMethod, String path, String accept) {
+	}
+	record Dispatch(ResourceHandler resource, Map<String, String> pathParameters, ResourceMethod method) {
 	}
 }
 class DefaultResourceMethod implements ResourceRouter.ResourceMethod {
 	private String httpMethod;
 	private UriTemplate uriTemplate;
 	private Method method;
+	private MethodInvoker invoker;
+	private Type returnType;
+	private List<ContentNegotiation.Range> produces;
+	private List<ContentNegotiation.Range> consumes;
 	public DefaultResourceMethod(Method method) {
 		this.method = method;
+		this.invoker = new MethodInvoker(method);
+		this.returnType = invoker.isSuspended() ? CompletionStage.class : method.getGenericReturnType();
+		this.produces = ContentNegotiation.produces(method);
+		this.consumes = ContentNegotiation.consumes(method);
 		this.uriTemplate = new PathTemplate(Optional.ofNullable(method.getAnnotation(Path.class)).map(Path::value).orElse(""));
 		this.httpMethod = stream(method.getAnnotations()).filter(a -> a.annotationType().isAnnotationPresent(HttpMethod.class))
 				.findFirst().get().annotationType().getAnnotation(HttpMethod.class).value();
@@ -76,9 +116,17 @@ class DefaultResourceMethod implements ResourceRouter.ResourceMethod {
 		return uriTemplate;
 	}
 	@Override
+	public List<ContentNegotiation.Range> getProduces() {
+		return produces;
+	}
+	@Override
 	public GenericEntity<?> call(ResourceContext resourceContext, UriInfoBuilder builder) {
-		Object result = MethodInvoker.invoke(method, resourceContext, builder);
-		return result != null ? new GenericEntity<>(result, method.getGenericReturnType()) : null;
+		if (consumes != ContentNegotiation.AnyType) {
+			if (!ContentNegotiation.accepts(consumes, EntityReader.request(resourceContext).getContentType()))
+				throw new StacklessWebApplicationException(Response.Status.UNSUPPORTED_MEDIA_TYPE.getStatusCode());
+		}
+		Object result = invoker.invoke(resourceContext, builder);
+		return result != null ? new GenericEntity<>(result, returnType) : null;
 	}
 	@Override
 	public String toString() {
@@ -87,9 +135,19 @@ class DefaultResourceMethod implements ResourceRouter.ResourceMethod {
 }
 
 class ResourceMethods {
+	private static final List<String> AllowedMethods = List.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT,
+			HttpMethod.POST, HttpMethod.DELETE, HttpMethod.PATCH);
 	private Map<String, List<ResourceRouter.ResourceMethod>> resourceMethods;
+	private Map<String, Map<UriTemplate, List<ResourceRouter.ResourceMethod>>> templates;
+	private static final UriTemplate Unmatched = new PathTemplate("");
+	private List<OptionResourceMethod> options;
+	private OptionResourceMethod unmatched = new OptionResourceMethod(Unmatched, allowed(Set.of()));
+	private Map<List<OptionResourceMethod>, OptionResourceMethod> combinedOptions = new ConcurrentHashMap<>();
 	public ResourceMethods(Method[] methods) {
 		this.resourceMethods = getResourceMethods(methods);
+		this.templates = resourceMethods.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+				e -> e.getValue().stream().collect(Collectors.groupingBy(ResourceRouter.ResourceMethod::getUriTemplate))));
+		this.options = getOptions(resourceMethods);
 	}
 	private static Map<String, List<ResourceRouter.ResourceMethod>> getResourceMethods(Method[] methods) {
 		return stream(methods).filter(m -> stream(m.getAnnotations())
@@ -97,21 +155,66 @@ class ResourceMethods {
 				.map(DefaultResourceMethod::new)
 				.collect(Collectors.groupingBy(ResourceRouter.ResourceMethod::getHttpMethod));
 	}
+	private static List<OptionResourceMethod> getOptions(Map<String, List<ResourceRouter.ResourceMethod>> resourceMethods) {
+		Map<UriTemplate, Set<String>> allowed = new LinkedHashMap<>();
+		for (String method : AllowedMethods)
+			for (ResourceRouter.ResourceMethod resourceMethod : resourceMethods.getOrDefault(method, List.of()))
+				allowed.computeIfAbsent(resourceMethod.getUriTemplate(), t -> new HashSet<>()).add(method);
+		return allowed.entrySet().stream().map(e -> new OptionResourceMethod(e.getKey(), allowed(e.getValue()))).toList();
+	}
+	private static Set<String> allowed(Set<String> methods) {
+		Set<String> allowed = new HashSet<>(methods);
+		allowed.add(HttpMethod.OPTIONS);
+		if (allowed.contains(HttpMethod.GET)) allowed.add(HttpMethod.HEAD);
+		return Set.copyOf(allowed);
+	}
 	public Optional<ResourceRouter.ResourceMethod> findResourceMethods(String path, String method) {
-		return findMethod(path, method).or(() -> findAlternative(path, method));
+		return findResourceMethods(path, method, ContentNegotiation.Any);
+	}
+	public Optional<ResourceRouter.ResourceMethod> findResourceMethods(String path, String method, ContentNegotiation.Accept accept) {
+		return findMethod(path, method, accept).or(() -> findAlternative(path, method, accept));
 	}
-	private Optional<ResourceRouter.ResourceMethod> findAlternative(String path, String method) {
-		if (HttpMethod.HEAD.equals(method)) return findMethod(path, HttpMethod.GET).map(HeadResourceMethod::new);
-		if (HttpMethod.OPTIONS.equals(method)) return Optional.of(new OptionResourceMethod(path));
+	private Optional<ResourceRouter.ResourceMethod> findAlternative(String path, String method, ContentNegotiation.Accept accept) {
+		if (HttpMethod.HEAD.equals(method)) return findMethod(path, HttpMethod.GET, accept).map(HeadResourceMethod::new);
+		if (HttpMethod.OPTIONS.equals(method)) return Optional.of(findOptions(path));
 		return Optional.empty();
 	}
-	private Optional<ResourceRouter.ResourceMethod> findMethod(String path, String method) {
-		return Optional.ofNullable(resourceMethods.get(method)).flatMap(methods -> UriHandlers.match(path, methods, r -> r.getRemaining() == null));
+	private Optional<ResourceRouter.ResourceMethod> findMethod(String path, String method, ContentNegotiation.Accept accept) {
+		List<ResourceRouter.ResourceMethod> methods = resourceMethods.get(method);
+		if (methods == null) return Optional.empty();
+		Optional<ResourceRouter.ResourceMethod> found = UriHandlers.match(path, methods, r -> r.getRemaining() == null);
+		if (found.isEmpty() || accept == ContentNegotiation.Any) return found;
+		List<ResourceRouter.ResourceMethod> acceptable = accept.select(templates.get(method).get(found.get().getUriTemplate()));
+		if (acceptable.isEmpty()) throw new StacklessWebApplicationException(Response.Status.NOT_ACCEPTABLE.getStatusCode());
+		return Optional.of(acceptable.get(0));
+	}
+	private OptionResourceMethod findOptions(String path) {
+		OptionResourceMethod found = null;
+		List<OptionResourceMethod> matched = null;
+		for (OptionResourceMethod option : options) {
+			if (option.getUriTemplate().match(path).filter(r -> r.getRemaining() == null).isEmpty()) continue;
+			if (found == null) {
+				found = option;
+			} else {
+				if (matched == null) matched = new ArrayList<>(List.of(found));
+				matched.add(option);
+			}
+		}
+		if (found == null) return unmatched;
+		if (matched == null) return found;
+		return combinedOptions.computeIfAbsent(List.copyOf(matched), templates -> {
+			Set<String> allowed = new HashSet<>();
+			for (OptionResourceMethod option : templates) allowed.addAll(option.allowed);
+			return new OptionResourceMethod(templates.get(0).getUriTemplate(), Set.copyOf(allowed));
+		});
 	}
-	class OptionResourceMethod implements ResourceRouter.ResourceMethod {
-		private String path;
-		public OptionResourceMethod(String path) {
-			this.path = path;
+	static class OptionResourceMethod implements ResourceRouter.ResourceMethod {
+		private final UriTemplate uriTemplate;
+		private final Set<String> allowed;
+		private volatile GenericEntity<?> response;
+		OptionResourceMethod(UriTemplate uriTemplate, Set<String> allowed) {
+			this.uriTemplate = uriTemplate;
+			this.allowed = allowed;
 		}
 		@Override
 		public String getHttpMethod() {
@@ -119,19 +222,13 @@ class ResourceMethods {
 		}
 		@Override
 		public GenericEntity<?> call(ResourceContext resourceContext, UriInfoBuilder builder) {
-			return new GenericEntity<>(Response.noContent().allow(findAllowedMethods()).build(), Response.class);
-		}
-		private Set<String> findAllowedMethods() {
-			Set<String> allowed = List.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT,
-							HttpMethod.POST, HttpMethod.DELETE, HttpMethod.PATCH).stream()
-					.filter(method -> findMethod(path, method).isPresent()).collect(Collectors.toSet());
-			allowed.add(HttpMethod.OPTIONS);
-			if (allowed.contains(HttpMethod.GET)) allowed.add(HttpMethod.HEAD);
-			return allowed;
+			GenericEntity<?> entity = response;
+			if (entity == null) response = entity = new GenericEntity<>(Response.noContent().allow(allowed).build(), Response.class);
+			return entity;
 		}
 		@Override
 		public UriTemplate getUriTemplate() {
-			return new PathTemplate(path);
+			return uriTemplate;
 		}
 	}
 }
@@ -146,8 +243,11 @@ class HeadResourceMethod implements ResourceRouter.ResourceMethod {
 	}
 	@Override
 	public GenericEntity<?> call(ResourceContext resourceContext, UriInfoBuilder builder) {
-		method.call(resourceContext, builder);
-		return null;
+		return method.call(resourceContext, builder);
+	}
+	@Override
+	public List<ContentNegotiation.Range> getProduces() {
+		return method.getProduces();
 	}
 	@Override
 	public UriTemplate getUriTemplate() {
@@ -167,8 +267,10 @@ class SubResourceLocators {
 	static class SubResourceLocator implements ResourceRouter.Resource {
 		private PathTemplate uriTemplate;
 		private Method method;
+		private MethodInvoker invoker;
 		public SubResourceLocator(Method method) {
 			this.method = method;
+			this.invoker = new MethodInvoker(method);
 			this.uriTemplate = new PathTemplate(method.getAnnotation(Path.class).value());
 		}
 		@Override
@@ -183,7 +285,7 @@ class SubResourceLocators {
 		public Optional<ResourceRouter.ResourceMethod> match(UriTemplate.MatchResult result, String httpMethod, String[] mediaTypes, ResourceContext resourceContext, UriInfoBuilder builder) {
 			try {
 				builder.addMatchedPathParameters(result.getMatchedPathParameters());
-				Object subResource = MethodInvoker.invoke(method, resourceContext, builder) ;
+				Object subResource = invoker.invoke(resourceContext, builder);
 				return new ResourceHandler(subResource, uriTemplate).match(execuldePathParameters(result), httpMethod, mediaTypes, resourceContext, builder);
 			} catch (WebApplicationException e){
 				throw e;
@@ -234,21 +336,46 @@ class ResourceHandler implements ResourceRouter.Resource {
 		this(resource.getClass(), uriTemplate, rc -> resource);
 	}
 	private ResourceHandler(Class<?> resourceClass, UriTemplate uriTemplate, Function<ResourceContext, Object> resource) {
+		ResourceClass model = ResourceClass.of(resourceClass);
 		this.uriTemplate = uriTemplate;
-		this.resourceMethods = new ResourceMethods(resourceClass.getMethods());
-		this.subResourceLocators = new SubResourceLocators(resourceClass.getMethods());
+		this.resourceMethods = model.resourceMethods();
+		this.subResourceLocators = model.subResourceLocators();
 		this.resource = resource;
 	}
 	@Override
 	public Optional<ResourceRouter.ResourceMethod> match(UriTemplate.MatchResult result, String httpMethod, String[] mediaTypes, ResourceContext resourceContext, UriInfoBuilder builder) {
+		enter(result.getMatchedPathParameters(), resourceContext, builder);
+		return findResourceMethod(result, httpMethod, mediaTypes)
+				.or(() -> findSubResourceMethod(result, httpMethod, mediaTypes, resourceContext, builder));
+	}
+	void enter(Map<String, String> pathParameters, ResourceContext resourceContext, UriInfoBuilder builder) {
 		builder.addMatchedResource(resource.apply(resourceContext));
-		builder.addMatchedPathParameters(result.getMatchedPathParameters());
-		String remaining = Optional.ofNullable(result.getRemaining()).orElse("");
-		return resourceMethods.findResourceMethods(remaining, httpMethod)
-				.or(() -> subResourceLocators.findSubResourceMethods(remaining, httpMethod, mediaTypes, resourceContext, builder));
+		builder.addMatchedPathParameters(pathParameters);
+	}
+	Optional<ResourceRouter.ResourceMethod> findResourceMethod(UriTemplate.MatchResult result, String httpMethod, String[] mediaTypes) {
+		return resourceMethods.findResourceMethods(remaining(result), httpMethod, ContentNegotiation.accept(mediaTypes));
+	}
+	Optional<ResourceRouter.ResourceMethod> findSubResourceMethod(UriTemplate.MatchResult result, String httpMethod, String[] mediaTypes,
+																  ResourceContext resourceContext, UriInfoBuilder builder) {
+		return subResourceLocators.findSubResourceMethods(remaining(result), httpMethod, mediaTypes, resourceContext, builder);
+	}
+	private static String remaining(UriTemplate.MatchResult result) {
+		return Optional.ofNullable(result.getRemaining()).orElse("");
 	}
 	@Override
 	public UriTemplate getUriTemplate() {
 		return uriTemplate;
 	}
+	record ResourceClass(ResourceMethods resourceMethods, SubResourceLocators subResourceLocators) {
+		private static final ClassValue<ResourceClass> classes = new ClassValue<>() {
+			@Override
+			protected ResourceClass computeValue(Class<?> resourceClass) {
+				Method[] methods = resourceClass.getMethods();
+				return new ResourceClass(new ResourceMethods(methods), new SubResourceLocators(methods));
+			}
+		};
+		static ResourceClass of(Class<?> resourceClass) {
+			return classes.get(resourceClass);
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package llb.tdd.di;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 在 Jetty 上运行 ResourceServlet, 可选每请求一个虚拟线程
+ * @ClassName: ResourceServer
+ * @date 2022-11-26 下午3:10
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class ResourceServer {
+	public enum Threads {
+		Platform, Virtual;
+
+		static Threads defaultThreads() {
+			return Threads.valueOf(System.getProperty("llb.tdd.di.threads", Platform.name()));
+		}
+	}
+
+	private final Runtime runtime;
+	private int port = 8080;
+	private int acceptors = -1;
+	private int selectors = -1;
+	private int maxThreads = 200;
+	private Threads threads = Threads.defaultThreads();
+	private Server server;
+	private ServerConnector connector;
+	private QueuedThreadPool pool;
+
+	public ResourceServer(Runtime runtime) {
+		this.runtime = runtime;
+	}
+
+	public void port(int port) {
+		this.port = port;
+	}
+
+	public void acceptors(int acceptors) {
+		this.acceptors = acceptors;
+	}
+
+	public void selectors(int selectors) {
+		this.selectors = selectors;
+	}
+
+	public void maxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	public void threads(Threads threads) {
+		this.threads = threads;
+	}
+
+	public void start() throws Exception {
+		pool = new QueuedThreadPool(maxThreads);
+		pool.setName("resource");
+		if (threads == Threads.Virtual && VirtualThreads.areSupported()) pool.setUseVirtualThreads(true);
+		server = new Server(pool);
+		connector = new ServerConnector(server, acceptors, selectors);
+		connector.setPort(port);
+		server.addConnector(connector);
+		ServletContextHandler handler = new ServletContextHandler(server, "/");
+		ServletHolder holder = new ServletHolder(new ResourceServlet(runtime));
+		holder.setAsyncSupported(true);
+		handler.addServlet(holder, "/");
+		server.setHandler(handler);
+		server.start();
+	}
+
+	public void stop() throws Exception {
+		if (server != null) server.stop();
+	}
+
+	public void join() throws InterruptedException {
+		server.join();
+	}
+
+	public int getPort() {
+		return connector.getLocalPort();
+	}
+
+	public boolean isVirtualThreads() {
+		return pool != null && pool.isUseVirtualThreads();
+	}
+}
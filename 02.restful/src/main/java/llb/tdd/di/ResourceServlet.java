@@ -1,19 +1,39 @@
 package llb.tdd.di;
 
 
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.GenericEntity;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.MessageBodyWriter;
 import jakarta.ws.rs.ext.Providers;
 import jakarta.ws.rs.ext.RuntimeDelegate;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
 
 /**
@@ -26,54 +46,260 @@ import java.util.function.Supplier;
  * @Version V1.0
  */
 public class ResourceServlet extends HttpServlet {
+	private static final String Streaming = ResourceServlet.class.getName() + ".streaming";
 	private Runtime runtime;
-	private Providers providers;
+	private volatile CachingProviders providers;
+	private final Map<Class<?>, RuntimeDelegate.HeaderDelegate> delegates = new ConcurrentHashMap<>();
 
 	public ResourceServlet(Runtime runtime) {
 		this.runtime = runtime;
-		this.providers = runtime.getProviders();
+		this.providers = new CachingProviders(runtime.getProviders());
 	}
 
 	@Override
 	protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
 		ResourceRouter router = runtime.getResourceRouter();
-		respond(resp, () -> router.dispatch(req, runtime.createResourceContext(req, resp)));
+		boolean head = HttpMethod.HEAD.equals(req.getMethod());
+		req.setAttribute(EntityReader.MaxEntitySize, runtime.getMaxEntitySize());
+		respond(req, resp, head, () -> router.dispatch(req, runtime.createResourceContext(req, resp)));
 	}
 
-	private void respond(HttpServletResponse resp, Supplier<OutboundResponse> supplier) {
+	private void respond(HttpServletRequest req, HttpServletResponse resp, boolean head, Supplier<OutboundResponse> supplier) {
 		try {
-			respond(resp, supplier.get());
+			respond(req, resp, head, supplier.get());
 		} catch (WebApplicationException exception) {
-			respond(resp, () -> (OutboundResponse) exception.getResponse());
+			respond(req, resp, head, () -> (OutboundResponse) exception.getResponse());
 		} catch (Throwable throwable) {
-			respond(resp, () -> from(throwable));
+			respond(req, resp, head, () -> from(throwable));
 		}
 	}
 
-	private void respond(HttpServletResponse resp, OutboundResponse response) throws IOException {
+	private void respond(HttpServletRequest req, HttpServletResponse resp, boolean head, OutboundResponse response) throws IOException {
+		GenericEntity entity = response.getGenericEntity();
+		if (entity != null && entity.getEntity() instanceof CompletionStage<?> stage) {
+			suspend(req, resp, head, stage, entity.getType());
+			return;
+		}
 		resp.setStatus(response.getStatus());
 		headers(resp, response.getHeaders());
-		body(resp, response, response.getGenericEntity());
+		if (head) length(req, resp, response, entity);
+		else body(req, resp, response, entity);
+	}
+
+	private void suspend(HttpServletRequest req, HttpServletResponse resp, boolean head, CompletionStage<?> stage, Type type) {
+		CompletableFuture<Object> result = new CompletableFuture<>();
+		stage.whenComplete((value, error) -> {
+			if (error == null) result.complete(value);
+			else result.completeExceptionally(error);
+		});
+		long timeout = runtime.getAsyncTimeout();
+		if (timeout > 0 && !SuspendedAsyncResponse.isSuspended(stage)) result.orTimeout(timeout, TimeUnit.MILLISECONDS);
+		if (!req.isAsyncSupported()) {
+			await(req, resp, head, result, type);
+			return;
+		}
+		AsyncContext context = req.startAsync();
+		context.setTimeout(0);
+		result.whenComplete((value, error) -> context.start(() -> {
+			try {
+				respond(req, resp, head, () -> resumed(value, error, type));
+			} finally {
+				if (req.getAttribute(Streaming) == null) context.complete();
+			}
+		}));
+	}
+
+	private void await(HttpServletRequest req, HttpServletResponse resp, boolean head, CompletableFuture<Object> result, Type type) {
+		try {
+			Object value = result.join();
+			respond(req, resp, head, () -> resumed(value, null, type));
+		} catch (CompletionException | CancellationException error) {
+			respond(req, resp, head, () -> resumed(null, error, type));
+		}
+	}
+
+	private OutboundResponse resumed(Object value, Throwable error, Type type) {
+		if (error instanceof CompletionException) error = error.getCause();
+		if (error instanceof TimeoutException) throw new StacklessWebApplicationException(Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+		if (error instanceof RuntimeException exception) throw exception;
+		if (error != null) return from(error);
+		if (value instanceof OutboundResponse response) return response;
+		if (value == null) return (OutboundResponse) Response.noContent().build();
+		return (OutboundResponse) Response.ok(new GenericEntity<>(value, resumedType(value, type))).build();
+	}
+
+	private static Type resumedType(Object value, Type type) {
+		if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == CompletionStage.class) {
+			Type actual = parameterized.getActualTypeArguments()[0];
+			if (actual instanceof Class<?> || actual instanceof ParameterizedType) return actual;
+		}
+		return value.getClass();
+	}
+
+	private void length(HttpServletRequest req, HttpServletResponse resp, OutboundResponse response, GenericEntity entity) throws IOException {
+		if (entity == null || response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH)) return;
+		if (FileContent.isFile(entity.getEntity())) {
+			long length = FileContent.length(precompressed(req, resp, response, entity.getEntity()));
+			FileContent.head(req, resp, response.getStatus() == HttpServletResponse.SC_OK, length);
+			return;
+		}
+		Compression.Encoding encoding = encoding(req, resp, response, entity.getEntity());
+		long length = length(entity.getEntity(), response.getMediaType());
+		if (length < 0) {
+			MessageBodyWriter writer = providers().getMessageBodyWriter(entity.getRawType(), entity.getType(), response.getAnnotations(), response.getMediaType());
+			if (writer != null) length = writer.getSize(entity.getEntity(), entity.getRawType(), entity.getType(), response.getAnnotations(), response.getMediaType());
+		}
+		if (encoding != Compression.Encoding.Identity && (length < 0 || runtime.getCompression().compresses(length))) {
+			resp.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token);
+			resp.flushBuffer();
+		} else if (length >= 0) resp.setContentLengthLong(length);
 	}
 
-	private void body(HttpServletResponse resp, OutboundResponse response, GenericEntity entity) throws IOException {
+	private static long length(Object entity, MediaType mediaType) {
+		if (entity instanceof byte[] bytes) return bytes.length;
+		if (entity instanceof String text) return length(text, charset(mediaType));
+		return -1;
+	}
+
+	// 只计算编码后的字节数, 不为 HEAD 分配整段实体的字节数组
+	static long length(String text, Charset charset) {
+		if (charset == StandardCharsets.UTF_8) return utf8Length(text);
+		if (charset == StandardCharsets.ISO_8859_1 || charset == StandardCharsets.US_ASCII) return text.length();
+		CharsetEncoder encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer input = CharBuffer.wrap(text);
+		ByteBuffer output = ByteBuffer.allocate(1024);
+		long length = 0;
+		CoderResult result;
+		do {
+			result = encoder.encode(input, output, true);
+			length += output.position();
+			output.clear();
+		} while (result.isOverflow());
+		do {
+			result = encoder.flush(output);
+			length += output.position();
+			output.clear();
+		} while (result.isOverflow());
+		return length;
+	}
+
+	private static long utf8Length(String text) {
+		long length = 0;
+		for (int i = 0, size = text.length(); i < size; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) length++;
+			else if (c < 0x800) length += 2;
+			else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(text.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) length++;
+			else length += 3;
+		}
+		return length;
+	}
+
+	private static Charset charset(MediaType mediaType) {
+		String charset = mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+		return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+	}
+
+	private void body(HttpServletRequest req, HttpServletResponse resp, OutboundResponse response, GenericEntity entity) throws IOException {
 		if (entity == null) return;
-		MessageBodyWriter writer = providers.getMessageBodyWriter(entity.getRawType(), entity.getType(), response.getAnnotations(), response.getMediaType());
-		writer.writeTo(entity.getEntity(), entity.getRawType(), entity.getType(), response.getAnnotations(), response.getMediaType(),
-				response.getHeaders(), resp.getOutputStream());
+		if (entity.getEntity() instanceof StreamingOutput output) {
+			output.write(resp.getOutputStream());
+			return;
+		}
+		if (FileContent.isFile(entity.getEntity())) {
+			try (FileContent content = FileContent.of(precompressed(req, resp, response, entity.getEntity()))) {
+				content.send(req, resp, response.getStatus() == HttpServletResponse.SC_OK);
+			}
+			return;
+		}
+		if (ChunkedOutput.isChunked(entity.getEntity())) {
+			stream(req, resp, response, entity.getEntity());
+			return;
+		}
+		MessageBodyWriter writer = providers().getMessageBodyWriter(entity.getRawType(), entity.getType(), response.getAnnotations(), response.getMediaType());
+		Compression.Encoding encoding = encoding(req, resp, response, entity.getEntity());
+		Compression.CompressingOutputStream compressed = encoding == Compression.Encoding.Identity ? null
+				: runtime.getCompression().compress(resp, resp.getOutputStream(), encoding);
+		OutputStream output = compressed == null ? resp.getOutputStream() : compressed;
+		try {
+			writer.writeTo(entity.getEntity(), entity.getRawType(), entity.getType(), response.getAnnotations(), response.getMediaType(),
+					response.getHeaders(), output);
+			if (compressed != null) compressed.close();
+		} finally {
+			if (compressed != null) compressed.release();
+		}
+	}
+
+	private Compression.Encoding encoding(HttpServletRequest req, HttpServletResponse resp, OutboundResponse response, Object entity) {
+		Compression compression = runtime.getCompression();
+		if (compression == null || !compression.isCompressible(response.getMediaType())) return Compression.Encoding.Identity;
+		if (entity instanceof StreamingOutput || FileContent.isFile(entity) || ChunkedOutput.isChunked(entity)) return Compression.Encoding.Identity;
+		MultivaluedMap<String, Object> headers = response.getHeaders();
+		if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || headers.containsKey(HttpHeaders.CONTENT_LENGTH)) return Compression.Encoding.Identity;
+		resp.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		return compression.negotiate(req.getHeader(HttpHeaders.ACCEPT_ENCODING));
+	}
+
+	private Object precompressed(HttpServletRequest req, HttpServletResponse resp, OutboundResponse response, Object entity) {
+		Compression compression = runtime.getCompression();
+		if (compression == null || !compression.isCompressible(response.getMediaType())) return entity;
+		if (response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) return entity;
+		java.nio.file.Path variant = Compression.precompressed(entity);
+		if (variant == null) return entity;
+		resp.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (compression.negotiate(req.getHeader(HttpHeaders.ACCEPT_ENCODING)) != Compression.Encoding.Gzip) return entity;
+		resp.setHeader(HttpHeaders.CONTENT_ENCODING, Compression.Encoding.Gzip.token);
+		return variant;
+	}
+
+	private void stream(HttpServletRequest req, HttpServletResponse resp, OutboundResponse response, Object chunks) throws IOException {
+		ChunkedOutput output = new ChunkedOutput(resp.getOutputStream(), chunk -> encode(response, chunk));
+		if (!req.isAsyncSupported()) {
+			output.write(chunks);
+			return;
+		}
+		req.setAttribute(Streaming, output);
+		AsyncContext context = req.isAsyncStarted() ? req.getAsyncContext() : req.startAsync();
+		context.setTimeout(0);
+		output.start(chunks, context);
+	}
+
+	private byte[] encode(OutboundResponse response, Object chunk) throws IOException {
+		if (chunk instanceof byte[] bytes) return bytes;
+		if (chunk instanceof String text) return text.getBytes(charset(response.getMediaType()));
+		MessageBodyWriter writer = providers().getMessageBodyWriter(chunk.getClass(), chunk.getClass(), response.getAnnotations(), response.getMediaType());
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		writer.writeTo(chunk, chunk.getClass(), chunk.getClass(), response.getAnnotations(), response.getMediaType(), response.getHeaders(), buffer);
+		return buffer.toByteArray();
 	}
 
 	private void headers(HttpServletResponse resp, MultivaluedMap<String, Object> headers) {
-		for (String name : headers.keySet()) {
-			for (Object value : headers.get(name)) {
-				RuntimeDelegate.HeaderDelegate headerDelegate = RuntimeDelegate.getInstance().createHeaderDelegate(value.getClass());
-				resp.addHeader(name, headerDelegate.toString(value));
-			}
+		for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+			for (Object value : header.getValue())
+				resp.addHeader(header.getKey(), value instanceof EncodedHeader encoded ? encoded.getValue() : delegate(value.getClass()).toString(value));
 		}
 	}
 
+	private RuntimeDelegate.HeaderDelegate delegate(Class<?> type) {
+		RuntimeDelegate.HeaderDelegate delegate = delegates.get(type);
+		if (delegate != null) return delegate;
+		delegate = RuntimeDelegate.getInstance().createHeaderDelegate(type);
+		if (delegate != null) delegates.putIfAbsent(type, delegate);
+		return delegate;
+	}
+
+	private Providers providers() {
+		CachingProviders providers = this.providers;
+		Providers current = runtime.getProviders();
+		if (providers.getProviders() != current) this.providers = providers = new CachingProviders(current);
+		return providers;
+	}
+
 	private OutboundResponse from(Throwable throwable) {
-		ExceptionMapper mapper = providers.getExceptionMapper(throwable.getClass());
+		ExceptionMapper mapper = providers().getExceptionMapper(throwable.getClass());
 		return (OutboundResponse) mapper.toResponse(throwable);
 	}
 }
@@ -25,4 +25,20 @@ public interface Runtime {
 
 	ResourceRouter getResourceRouter();
 
+	default int getDispatchCacheSize() {
+		return 0;
+	}
+
+	default long getAsyncTimeout() {
+		return 30_000;
+	}
+
+	default Compression getCompression() {
+		return null;
+	}
+
+	default long getMaxEntitySize() {
+		return EntityReader.DefaultMaxEntitySize;
+	}
+
 }
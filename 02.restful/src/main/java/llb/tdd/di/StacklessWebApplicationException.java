@@ -0,0 +1,29 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 不记录调用栈的 WebApplicationException, 用于 404 等预期内的失败
+ * @ClassName: StacklessWebApplicationException
+ * @date 2022-11-24 下午7:50
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class StacklessWebApplicationException extends WebApplicationException {
+	private static final long serialVersionUID = 1L;
+
+	public StacklessWebApplicationException(int status) {
+		super(StatusResponse.of(status));
+	}
+
+	public static StacklessWebApplicationException notFound() {
+		return new StacklessWebApplicationException(404);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
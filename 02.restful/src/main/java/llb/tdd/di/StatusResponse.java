@@ -0,0 +1,192 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.core.*;
+
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 只有状态码、不可变的响应, 404/406 预先构建共享
+ * @ClassName: StatusResponse
+ * @date 2022-11-24 下午7:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class StatusResponse extends OutboundResponse {
+	static final StatusResponse NotFound = new StatusResponse(Status.NOT_FOUND);
+	static final StatusResponse NotAcceptable = new StatusResponse(Status.NOT_ACCEPTABLE);
+
+	private static final Annotation[] NoAnnotations = new Annotation[0];
+	private static final MultivaluedMap<String, Object> NoHeaders = new AbstractMultivaluedMap<>(Collections.emptyMap()) {
+	};
+	private static final MultivaluedMap<String, String> NoStringHeaders = new AbstractMultivaluedMap<>(Collections.emptyMap()) {
+	};
+
+	private final StatusType status;
+
+	StatusResponse(StatusType status) {
+		this.status = status;
+	}
+
+	static StatusResponse of(int status) {
+		return switch (status) {
+			case 404 -> NotFound;
+			case 406 -> NotAcceptable;
+			default -> new StatusResponse(Status.fromStatusCode(status) != null ? Status.fromStatusCode(status) : new Unknown(status));
+		};
+	}
+
+	@Override
+	GenericEntity getGenericEntity() {
+		return null;
+	}
+
+	@Override
+	Annotation[] getAnnotations() {
+		return NoAnnotations;
+	}
+
+	@Override
+	public int getStatus() {
+		return status.getStatusCode();
+	}
+
+	@Override
+	public StatusType getStatusInfo() {
+		return status;
+	}
+
+	@Override
+	public Object getEntity() {
+		return null;
+	}
+
+	@Override
+	public <T> T readEntity(Class<T> entityType) {
+		throw new IllegalStateException("No entity");
+	}
+
+	@Override
+	public <T> T readEntity(GenericType<T> entityType) {
+		throw new IllegalStateException("No entity");
+	}
+
+	@Override
+	public <T> T readEntity(Class<T> entityType, Annotation[] annotations) {
+		throw new IllegalStateException("No entity");
+	}
+
+	@Override
+	public <T> T readEntity(GenericType<T> entityType, Annotation[] annotations) {
+		throw new IllegalStateException("No entity");
+	}
+
+	@Override
+	public boolean hasEntity() {
+		return false;
+	}
+
+	@Override
+	public boolean bufferEntity() {
+		return false;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public MediaType getMediaType() {
+		return null;
+	}
+
+	@Override
+	public Locale getLanguage() {
+		return null;
+	}
+
+	@Override
+	public int getLength() {
+		return -1;
+	}
+
+	@Override
+	public Set<String> getAllowedMethods() {
+		return Set.of();
+	}
+
+	@Override
+	public Map<String, NewCookie> getCookies() {
+		return Map.of();
+	}
+
+	@Override
+	public EntityTag getEntityTag() {
+		return null;
+	}
+
+	@Override
+	public Date getDate() {
+		return null;
+	}
+
+	@Override
+	public Date getLastModified() {
+		return null;
+	}
+
+	@Override
+	public URI getLocation() {
+		return null;
+	}
+
+	@Override
+	public Set<Link> getLinks() {
+		return Set.of();
+	}
+
+	@Override
+	public boolean hasLink(String relation) {
+		return false;
+	}
+
+	@Override
+	public Link getLink(String relation) {
+		return null;
+	}
+
+	@Override
+	public Link.Builder getLinkBuilder(String relation) {
+		return null;
+	}
+
+	@Override
+	public MultivaluedMap<String, Object> getMetadata() {
+		return NoHeaders;
+	}
+
+	@Override
+	public MultivaluedMap<String, String> getStringHeaders() {
+		return NoStringHeaders;
+	}
+
+	@Override
+	public String getHeaderString(String name) {
+		return null;
+	}
+
+	private record Unknown(int getStatusCode) implements StatusType {
+		@Override
+		public Status.Family getFamily() {
+			return Status.Family.familyOf(getStatusCode);
+		}
+
+		@Override
+		public String getReasonPhrase() {
+			return "";
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.CompletionCallback;
+import jakarta.ws.rs.container.TimeoutHandler;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: @Suspended 参数注入的 AsyncResponse, 以 CompletionStage 交给 ResourceServlet
+ * @ClassName: SuspendedAsyncResponse
+ * @date 2022-11-25 下午7:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class SuspendedAsyncResponse implements AsyncResponse {
+	private final CompletableFuture<Object> result = new Result();
+	private final AtomicInteger timeouts = new AtomicInteger();
+	private volatile TimeoutHandler timeoutHandler;
+	private volatile boolean cancelled;
+
+	CompletionStage<Object> stage() {
+		return result;
+	}
+
+	// AsyncResponse 的超时由资源自己通过 setTimeout 控制, 不受 Runtime 的异步超时约束
+	static boolean isSuspended(CompletionStage<?> stage) {
+		return stage instanceof Result;
+	}
+
+	private static final class Result extends CompletableFuture<Object> {
+	}
+
+	@Override
+	public boolean resume(Object response) {
+		return result.complete(response);
+	}
+
+	@Override
+	public boolean resume(Throwable response) {
+		return result.completeExceptionally(response);
+	}
+
+	@Override
+	public boolean cancel() {
+		return cancel(StatusResponse.of(Response.Status.SERVICE_UNAVAILABLE.getStatusCode()));
+	}
+
+	@Override
+	public boolean cancel(int retryAfter) {
+		return cancel(Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, retryAfter).build());
+	}
+
+	@Override
+	public boolean cancel(Date retryAfter) {
+		return cancel(Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, retryAfter).build());
+	}
+
+	private boolean cancel(Response response) {
+		if (result.complete(response)) cancelled = true;
+		return cancelled;
+	}
+
+	@Override
+	public boolean isSuspended() {
+		return !result.isDone();
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public boolean isDone() {
+		return result.isDone();
+	}
+
+	@Override
+	public boolean setTimeout(long time, TimeUnit unit) {
+		if (result.isDone()) return false;
+		int timeout = timeouts.incrementAndGet();
+		CompletableFuture.delayedExecutor(time, unit).execute(() -> {
+			if (timeouts.get() == timeout) timeout();
+		});
+		return true;
+	}
+
+	private void timeout() {
+		if (result.isDone()) return;
+		TimeoutHandler handler = timeoutHandler;
+		if (handler != null) handler.handleTimeout(this);
+		else resume(new StacklessWebApplicationException(Response.Status.SERVICE_UNAVAILABLE.getStatusCode()));
+	}
+
+	@Override
+	public void setTimeoutHandler(TimeoutHandler handler) {
+		this.timeoutHandler = handler;
+	}
+
+	@Override
+	public Collection<Class<?>> register(Class<?> callback) {
+		return register(instance(callback));
+	}
+
+	@Override
+	public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+		Map<Class<?>, Collection<Class<?>>> registered = new HashMap<>();
+		registered.put(callback, register(callback));
+		for (Class<?> other : callbacks) registered.put(other, register(other));
+		return registered;
+	}
+
+	@Override
+	public Collection<Class<?>> register(Object callback) {
+		if (!(callback instanceof CompletionCallback completion)) return List.of();
+		result.whenComplete((value, error) -> completion.onComplete(error instanceof CompletionException ? error.getCause() : error));
+		return List.of(CompletionCallback.class);
+	}
+
+	@Override
+	public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+		Map<Class<?>, Collection<Class<?>>> registered = new HashMap<>();
+		registered.put(callback.getClass(), register(callback));
+		for (Object other : callbacks) registered.put(other.getClass(), register(other));
+		return registered;
+	}
+
+	private static Object instance(Class<?> callback) {
+		try {
+			return callback.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+}
@@ -1,6 +1,10 @@
 package llb.tdd.di;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -34,7 +38,7 @@ class UriHandlers {
 
     private static <T extends UriHandler> Optional<Result<T>> matched(String path, List<T> handlers, Function<UriTemplate.MatchResult, Boolean> matchFunction) {
         return handlers.stream().map(m -> new Result<>(m.getUriTemplate().match(path), m, matchFunction))
-                .filter(Result::isMatched).sorted().findFirst();
+                .filter(Result::isMatched).min(Result::compareTo);
     }
 
     private record Result<T extends UriHandler>
@@ -51,3 +55,40 @@ class UriHandlers {
     }
 }
 
+class UriHandlerTree<T extends UriHandler> {
+    private final List<T> handlers;
+    private final Node root = new Node();
+
+    public UriHandlerTree(List<T> handlers) {
+        this.handlers = handlers;
+        for (int i = 0; i < handlers.size(); i++) {
+            Node node = root;
+            for (String segment : literalSegments(handlers.get(i).getUriTemplate()))
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            node.handlers.set(i);
+        }
+    }
+
+    public List<T> candidates(String path) {
+        BitSet found = (BitSet) root.handlers.clone();
+        Node node = root;
+        for (int from = 1, end = 0; end >= 0 && path.startsWith("/"); from = end + 1) {
+            end = path.indexOf('/', from);
+            node = node.children.get(path.substring(from, end < 0 ? path.length() : end));
+            if (node == null) break;
+            found.or(node.handlers);
+        }
+        List<T> candidates = new ArrayList<>(found.cardinality());
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) candidates.add(handlers.get(i));
+        return candidates;
+    }
+
+    private static List<String> literalSegments(UriTemplate template) {
+        return template instanceof PathTemplate pathTemplate ? pathTemplate.getLiteralSegments() : List.of();
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final BitSet handlers = new BitSet();
+    }
+}
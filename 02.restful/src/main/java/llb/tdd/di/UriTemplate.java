@@ -3,7 +3,6 @@ package llb.tdd.di;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.IntStream;
 
 /**
  * @author LiLuBing
@@ -28,22 +27,135 @@ interface UriTemplate {
 
 class PathTemplate implements UriTemplate {
 
-    private final Pattern pattern;
+    private static final String RegexCharacters = "\\^$.|?*+()[]{}";
+    private static final String LineTerminators = "\n\r\u0085\u2028\u2029";
+    private static final Pattern DefaultVariable = Pattern.compile("\\{\\w[\\w\\.-]*}");
+
+    private final String template;
+    private final PathMatcher matcher;
+    private final List<String> literalSegments;
     private PathVariables pathVariables = new PathVariables();
     private int variableGroupStartFrom;
 
     public PathTemplate(String template) {
-        pattern = Pattern.compile(group(pathVariables.template(template)) + "(/.*)?");
+        this(template, false);
+    }
+
+    private PathTemplate(String template, boolean regex) {
+        this.template = template;
+        String expression = group(pathVariables.template(template)) + "(/.*)?";
+        literalSegments = literalSegments(template);
         variableGroupStartFrom = 2;
+        matcher = regex ? pattern(expression) : specialised(template).orElseGet(() -> pattern(expression));
+    }
+
+    static PathTemplate regex(String template) {
+        return new PathTemplate(template, true);
+    }
+
+    interface PathMatcher {
+        int[] offsets(String path);
+    }
+
+    private PathMatcher pattern(String expression) {
+        Pattern pattern = Pattern.compile(expression);
+        return path -> {
+            Matcher matcher = pattern.matcher(path);
+            return matcher.matches() ? pathVariables.offsets(matcher) : null;
+        };
+    }
+
+    private Optional<PathMatcher> specialised(String template) {
+        String[] segments = template.split("/", -1);
+        boolean[] variables = new boolean[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            variables[i] = DefaultVariable.matcher(segments[i]).matches();
+            if (!variables[i] && hasRegexCharacter(segments[i])) return Optional.empty();
+        }
+        if (pathVariables.variables.isEmpty()) return Optional.of(path -> path.startsWith(template) ? remaining(path, template.length(), new int[4]) : null);
+        int count = pathVariables.variables.size();
+        return Optional.of(path -> {
+            int[] offsets = new int[(count + 2) * 2];
+            int position = 0;
+            for (int i = 0, variable = 1; i < segments.length; i++) {
+                if (i > 0) {
+                    if (position >= path.length() || path.charAt(position) != '/') return null;
+                    position++;
+                }
+                if (variables[i]) {
+                    int end = path.indexOf('/', position);
+                    if (end < 0) end = path.length();
+                    if (end == position) return null;
+                    offsets[variable * 2] = position;
+                    offsets[variable * 2 + 1] = end;
+                    variable++;
+                    position = end;
+                } else {
+                    if (!path.startsWith(segments[i], position)) return null;
+                    position += segments[i].length();
+                }
+            }
+            return remaining(path, position, offsets);
+        });
+    }
+
+    private static int[] remaining(String path, int matched, int[] offsets) {
+        offsets[1] = matched;
+        int remaining = offsets.length - 2;
+        if (matched == path.length()) {
+            offsets[remaining] = offsets[remaining + 1] = -1;
+            return offsets;
+        }
+        if (path.charAt(matched) != '/') return null;
+        for (int i = matched; i < path.length(); i++)
+            if (LineTerminators.indexOf(path.charAt(i)) >= 0) return null;
+        offsets[remaining] = matched;
+        offsets[remaining + 1] = path.length();
+        return offsets;
+    }
+
+    private static boolean hasRegexCharacter(String segment) {
+        return segment.chars().anyMatch(c -> RegexCharacters.indexOf(c) >= 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PathTemplate other && template.equals(other.template);
+    }
+
+    @Override
+    public int hashCode() {
+        return template.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    List<String> getLiteralSegments() {
+        return literalSegments;
+    }
+
+    private static List<String> literalSegments(String template) {
+        if (!template.startsWith("/")) return List.of();
+        int variable = template.indexOf('{');
+        String literal = variable < 0 ? template : template.substring(0, template.lastIndexOf('/', variable) + 1);
+        List<String> segments = new ArrayList<>();
+        for (String segment : literal.substring(1).split("/")) {
+            if (segment.isEmpty() || hasRegexCharacter(segment)) break;
+            segments.add(segment);
+        }
+        return List.copyOf(segments);
     }
 
     @Override
     public Optional<MatchResult> match(String path) {
-        Matcher matcher = pattern.matcher(path);
-        if (!matcher.matches()) {
+        int[] offsets = matcher.offsets(path);
+        if (offsets == null) {
             return Optional.empty();
         }
-        return Optional.of(new PathMatchResult(matcher, pathVariables));
+        return Optional.of(new PathMatchResult(path, offsets, pathVariables));
     }
 
     class PathVariables implements Comparable<PathVariables> {
@@ -78,10 +190,29 @@ class PathTemplate implements UriTemplate {
             return defaultVariablePattern;
         }
 
-        public Map<String, String> extract(Matcher matcher) {
+        private int[] offsets(Matcher matcher) {
+            int[] offsets = new int[(variables.size() + 2) * 2];
+            offset(matcher, 1, offsets, 0);
+            for (int i = 0; i < variables.size(); i++) offset(matcher, variableGroupStartFrom + i, offsets, i + 1);
+            offset(matcher, matcher.groupCount(), offsets, variables.size() + 1);
+            return offsets;
+        }
+
+        private static void offset(Matcher matcher, int group, int[] offsets, int index) {
+            offsets[index * 2] = matcher.start(group);
+            offsets[index * 2 + 1] = matcher.end(group);
+        }
+
+        private int literalCount(int[] offsets) {
+            int count = offsets[1] - offsets[0];
+            for (int i = 1; i <= variables.size(); i++) count -= offsets[i * 2 + 1] - offsets[i * 2];
+            return count;
+        }
+
+        public Map<String, String> extract(String path, int[] offsets) {
             Map<String, String> tmp = new HashMap<>();
             for (int i = 0; i < variables.size(); i++) {
-                tmp.put(variables.get(i), matcher.group(variableGroupStartFrom + i));
+                tmp.put(variables.get(i), path.substring(offsets[(i + 1) * 2], offsets[(i + 1) * 2 + 1]));
             }
             return tmp;
         }
@@ -95,18 +226,17 @@ class PathTemplate implements UriTemplate {
     }
 
     class PathMatchResult implements MatchResult {
-        private int matchLiteralCount;
-        private PathVariables variables;
-        private Matcher matcher;
+        private final int matchLiteralCount;
+        private final PathVariables variables;
+        private final String path;
+        private final int[] offsets;
         private Map<String, String> parameters;
 
-        public PathMatchResult(Matcher matcher, PathVariables variables) {
-            this.matcher = matcher;
+        public PathMatchResult(String path, int[] offsets, PathVariables variables) {
+            this.path = path;
             this.variables = variables;
-            this.parameters = variables.extract(matcher);
-
-            this.matchLiteralCount = matcher.group(1).length();
-            IntStream.range(0, variables.variables.size()).forEach(i -> matchLiteralCount -= matcher.group(variableGroupStartFrom + i).length());
+            this.offsets = offsets;
+            this.matchLiteralCount = variables.literalCount(offsets);
         }
 
         @Override
@@ -124,16 +254,18 @@ class PathTemplate implements UriTemplate {
 
         @Override
         public String getMatched() {
-            return matcher.group(1);
+            return path.substring(offsets[0], offsets[1]);
         }
 
         @Override
         public String getRemaining() {
-            return matcher.group(matcher.groupCount());
+            int remaining = offsets.length - 2;
+            return offsets[remaining] < 0 ? null : path.substring(offsets[remaining], offsets[remaining + 1]);
         }
 
         @Override
         public Map<String, String> getMatchedPathParameters() {
+            if (parameters == null) parameters = variables.extract(path, offsets);
             return parameters;
         }
     }
@@ -0,0 +1,76 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Providers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.lang.annotation.Annotation;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: CachingProvidersTest
+ * @date 2022-11-23 下午7:45
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class CachingProvidersTest {
+	private Providers providers;
+	private CachingProviders cached;
+
+	@BeforeEach
+	public void before() {
+		providers = Mockito.mock(Providers.class);
+		cached = new CachingProviders(providers);
+	}
+
+	@Test
+	public void should_resolve_message_body_writer_once_for_same_type_and_media_type() {
+		MessageBodyWriter<String> writer = Mockito.mock(MessageBodyWriter.class);
+		when(providers.getMessageBodyWriter(eq(String.class), eq(String.class), any(), eq(MediaType.TEXT_PLAIN_TYPE))).thenReturn(writer);
+
+		assertSame(writer, cached.getMessageBodyWriter(String.class, String.class, new Annotation[0], MediaType.TEXT_PLAIN_TYPE));
+		assertSame(writer, cached.getMessageBodyWriter(String.class, String.class, new Annotation[0], MediaType.TEXT_PLAIN_TYPE));
+
+		verify(providers, times(1)).getMessageBodyWriter(eq(String.class), eq(String.class), any(), eq(MediaType.TEXT_PLAIN_TYPE));
+	}
+
+	@Test
+	public void should_resolve_message_body_writer_again_for_different_media_type() {
+		cached.getMessageBodyWriter(String.class, String.class, new Annotation[0], MediaType.TEXT_PLAIN_TYPE);
+		cached.getMessageBodyWriter(String.class, String.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE);
+
+		verify(providers).getMessageBodyWriter(eq(String.class), eq(String.class), any(), eq(MediaType.TEXT_PLAIN_TYPE));
+		verify(providers).getMessageBodyWriter(eq(String.class), eq(String.class), any(), eq(MediaType.APPLICATION_JSON_TYPE));
+	}
+
+	@Test
+	public void should_not_cache_missing_message_body_writer() {
+		assertNull(cached.getMessageBodyWriter(Double.class, Double.class, new Annotation[0], MediaType.TEXT_PLAIN_TYPE));
+		assertNull(cached.getMessageBodyWriter(Double.class, Double.class, new Annotation[0], MediaType.TEXT_PLAIN_TYPE));
+
+		verify(providers, times(2)).getMessageBodyWriter(eq(Double.class), eq(Double.class), any(), eq(MediaType.TEXT_PLAIN_TYPE));
+	}
+
+	@Test
+	public void should_resolve_exception_mapper_once_per_exception_class() {
+		ExceptionMapper<IllegalStateException> mapper = Mockito.mock(ExceptionMapper.class);
+		when(providers.getExceptionMapper(eq(IllegalStateException.class))).thenReturn(mapper);
+
+		assertSame(mapper, cached.getExceptionMapper(IllegalStateException.class));
+		assertSame(mapper, cached.getExceptionMapper(IllegalStateException.class));
+
+		verify(providers, times(1)).getExceptionMapper(eq(IllegalStateException.class));
+	}
+}
@@ -0,0 +1,81 @@
+package llb.tdd.di;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.SubmissionPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: ChunkedOutputTest
+ * @date 2022-11-27 下午3:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class ChunkedOutputTest {
+	private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+	private final ChunkedOutput output = new ChunkedOutput(new ServletOutputStream() {
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+		}
+
+		@Override
+		public void write(int b) {
+			written.write(b);
+		}
+	}, chunk -> chunk.toString().getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	public void should_identify_chunked_entities() {
+		assertTrue(ChunkedOutput.isChunked(List.of().iterator()));
+		assertTrue(ChunkedOutput.isChunked(new SubmissionPublisher<>()));
+		assertFalse(ChunkedOutput.isChunked(List.of()));
+	}
+
+	@Test
+	public void should_write_iterator_chunks_when_blocking() throws IOException {
+		output.write(List.of(1, 2, 3).iterator());
+
+		assertEquals("123", written.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void should_write_publisher_chunks_when_blocking() throws IOException {
+		SubmissionPublisher<Object> publisher = new SubmissionPublisher<>();
+		new Thread(() -> {
+			while (publisher.getNumberOfSubscribers() == 0) Thread.onSpinWait();
+			List.of("a", "b", "c").forEach(publisher::submit);
+			publisher.close();
+		}).start();
+
+		output.write(publisher);
+
+		assertEquals("abc", written.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void should_rethrow_publisher_failure_when_blocking() {
+		SubmissionPublisher<Object> publisher = new SubmissionPublisher<>();
+		IllegalStateException failure = new IllegalStateException();
+		new Thread(() -> {
+			while (publisher.getNumberOfSubscribers() == 0) Thread.onSpinWait();
+			publisher.closeExceptionally(failure);
+		}).start();
+
+		assertSame(failure, assertThrows(RuntimeException.class, () -> output.write(publisher)).getCause());
+	}
+}
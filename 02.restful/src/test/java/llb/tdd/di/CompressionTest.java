@@ -0,0 +1,119 @@
+package llb.tdd.di;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: CompressionTest
+ * @date 2022-12-01 下午9:05
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class CompressionTest {
+
+	@ParameterizedTest(name = "{1} from '{0}'")
+	@CsvSource(delimiter = '|', textBlock = """
+			gzip, deflate               | Gzip
+			deflate, gzip;q=0.5         | Deflate
+			br, *                       | Gzip
+			gzip;q=0, *;q=0.3           | Deflate
+			identity                    | Identity
+			*;q=0                       | Identity
+			''                          | Identity
+			""")
+	public void should_negotiate_encoding_from_accept_encoding(String acceptEncoding, Compression.Encoding encoding) {
+		assertEquals(encoding, new Compression().negotiate(acceptEncoding));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@CsvSource(delimiter = '|', textBlock = """
+			application/json            | true
+			text/html                   | true
+			image/png                   | false
+			""")
+	public void should_compress_only_opted_in_media_types(String mediaType, boolean compressible) {
+		Compression compression = new Compression(MediaType.APPLICATION_JSON, "text/*");
+		String[] type = mediaType.split("/");
+
+		assertEquals(compressible, compression.isCompressible(new MediaType(type[0], type[1])));
+	}
+
+	@Test
+	public void should_write_gzip_stream_above_min_size() throws Exception {
+		Compression compression = new Compression();
+		HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] content = "0123456789".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+		try (OutputStream stream = compression.compress(response, output, Compression.Encoding.Gzip)) {
+			for (int i = 0; i < content.length; i += 100) stream.write(content, i, 100);
+		}
+
+		Mockito.verify(response).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		assertArrayEquals(content, new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).readAllBytes());
+		assertTrue(output.size() < content.length / 10);
+	}
+
+	@Test
+	public void should_write_raw_bytes_below_min_size() throws Exception {
+		Compression compression = new Compression();
+		HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		try (OutputStream stream = compression.compress(response, output, Compression.Encoding.Gzip)) {
+			stream.write("small".getBytes(StandardCharsets.UTF_8));
+		}
+
+		Mockito.verify(response).setContentLength(5);
+		Mockito.verify(response, Mockito.never()).setHeader(Mockito.eq(HttpHeaders.CONTENT_ENCODING), Mockito.any());
+		assertEquals("small", output.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void should_return_deflater_to_pool_after_close() throws Exception {
+		Compression compression = new Compression();
+		HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+		compression.compress(response, new ByteArrayOutputStream(), Compression.Encoding.Gzip).close();
+		Compression.CompressingOutputStream stream = compression.compress(response, new ByteArrayOutputStream(), Compression.Encoding.Gzip);
+
+		assertEquals(0, compression.pooled(Compression.Encoding.Gzip));
+		stream.release();
+		stream.release();
+		assertEquals(1, compression.pooled(Compression.Encoding.Gzip));
+	}
+
+	@Test
+	public void should_find_gzip_variant_next_to_file() throws Exception {
+		Path file = Files.createTempFile("content", ".json");
+		Path variant = file.resolveSibling(file.getFileName() + ".gz");
+		try {
+			assertNull(Compression.precompressed(file));
+			Files.createFile(variant);
+			assertEquals(variant, Compression.precompressed(file));
+			assertEquals(variant, Compression.precompressed(file.toFile()));
+			assertNull(Compression.precompressed("text"));
+		} finally {
+			Files.deleteIfExists(variant);
+			Files.deleteIfExists(file);
+		}
+	}
+}
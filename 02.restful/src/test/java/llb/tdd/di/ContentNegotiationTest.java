@@ -0,0 +1,96 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Produces;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: ContentNegotiationTest
+ * @date 2022-11-30 下午8:20
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class ContentNegotiationTest {
+
+	@Test
+	public void should_parse_accept_header_most_specific_first() {
+		List<ContentNegotiation.Range> ranges = ContentNegotiation.parse("*/*;q=0.1, text/*;q=0.5, text/plain, invalid");
+
+		assertEquals(List.of(new ContentNegotiation.Range("text", "plain", 1), new ContentNegotiation.Range("text", "*", 0.5),
+				new ContentNegotiation.Range("*", "*", 0.1)), ranges);
+	}
+
+	@ParameterizedTest(name = "{2}")
+	@CsvSource(delimiter = '|', textBlock = """
+			text/plain                          | 1.0 | exact match
+			text/*;q=0.5                        | 0.5 | subtype wildcard
+			text/*;q=1, text/plain;q=0          | 0.0 | most specific range decides
+			application/json, */*;q=0.2         | 0.2 | any type fallback
+			application/json                    | 0.0 | not acceptable
+			text/plain;q=abc                    | 0.0 | malformed quality
+			""")
+	public void should_compute_quality_of_produced_type(String header, double quality, String context) {
+		ContentNegotiation.Accept accept = ContentNegotiation.accept(new String[]{header});
+
+		assertEquals(quality, accept.quality(ContentNegotiation.parse("text/plain")));
+	}
+
+	@Test
+	public void should_reuse_parsed_accept_for_same_header() {
+		String[] header = {"application/json, text/plain;q=0.8"};
+
+		assertSame(ContentNegotiation.accept(header), ContentNegotiation.accept(header.clone()));
+		assertSame(ContentNegotiation.Any, ContentNegotiation.accept(new String[]{"*/*"}));
+		assertSame(ContentNegotiation.Any, ContentNegotiation.accept(new String[0]));
+	}
+
+	@Test
+	public void should_read_produces_and_consumes_from_method_or_class() throws NoSuchMethodException {
+		assertEquals(ContentNegotiation.parse("application/json"), ContentNegotiation.produces(Resource.class.getMethod("json")));
+		assertEquals(ContentNegotiation.parse("text/plain"), ContentNegotiation.produces(Resource.class.getMethod("plain")));
+		assertEquals(ContentNegotiation.parse("text/plain"), ContentNegotiation.consumes(Resource.class.getMethod("plain")));
+		assertSame(ContentNegotiation.AnyType, ContentNegotiation.consumes(Plain.class.getMethod("get")));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@CsvSource(delimiter = '|', textBlock = """
+			text/plain                  | true
+			text/plain; charset=UTF-8   | true
+			application/json            | false
+			""")
+	public void should_check_content_type_against_consumes(String contentType, boolean accepted) {
+		assertEquals(accepted, ContentNegotiation.accepts(ContentNegotiation.parse("text/*"), contentType));
+	}
+
+	@Produces("text/plain")
+	@Consumes("text/plain")
+	static class Resource {
+		@GET
+		@Produces("application/json")
+		public String json() {
+			return "{}";
+		}
+
+		@GET
+		public String plain() {
+			return "plain";
+		}
+	}
+
+	static class Plain {
+		@GET
+		public String get() {
+			return "plain";
+		}
+	}
+}
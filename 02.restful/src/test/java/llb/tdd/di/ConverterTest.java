@@ -1,8 +1,11 @@
 package llb.tdd.di;
 
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.ext.ParamConverter;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +31,72 @@ public class ConverterTest {
     public void should_not_convert_if_no_converter_factory() {
         assertEquals(Optional.empty(), ConverterFactory.convert(NoConverter.class, "Factory"));
     }
+
+    @Test
+    public void should_convert_via_from_string_factory() {
+        assertEquals(Optional.of(new FromStringConverter("value")), ConverterFactory.convert(FromStringConverter.class, "value"));
+    }
+
+    @Test
+    public void should_cache_converter_of_type() {
+        assertSame(Converters.constructor(BigDecimal.class), Converters.constructor(BigDecimal.class));
+        assertSame(Converters.factory(NoConverter.class), Converters.factory(NoConverter.class));
+    }
+
+    @Test
+    public void should_use_registered_converter_before_builtin_converters() throws NoSuchMethodException {
+        Converters.register(RegisteredConverter.class, new ParamConverter<>() {
+            @Override
+            public RegisteredConverter fromString(String value) {
+                return new RegisteredConverter(value.toUpperCase());
+            }
+
+            @Override
+            public String toString(RegisteredConverter value) {
+                return value.value();
+            }
+        });
+
+        MethodInvoker.ValueConverter<Object> converter = Converters.converter(
+                Parameters.class.getMethod("get", RegisteredConverter.class).getParameters()[0]).get();
+
+        assertEquals(new RegisteredConverter("VALUE"), converter.fromString(List.of("value")));
+    }
+
+    @Test
+    public void should_not_register_converter_after_type_resolved_by_resource_model() throws NoSuchMethodException {
+        Converters.converter(Parameters.class.getMethod("get", LateConverter.class).getParameters()[0]);
+
+        assertThrows(IllegalStateException.class, () -> Converters.register(LateConverter.class, new ParamConverter<>() {
+            @Override
+            public LateConverter fromString(String value) {
+                return new LateConverter(value);
+            }
+
+            @Override
+            public String toString(LateConverter value) {
+                return value.value();
+            }
+        }));
+    }
+
+    interface Parameters {
+        void get(@QueryParam("value") RegisteredConverter value);
+
+        void get(@QueryParam("value") LateConverter value);
+    }
+}
+
+record FromStringConverter(String value) {
+    public static FromStringConverter fromString(String value) {
+        return new FromStringConverter(value);
+    }
+}
+
+record RegisteredConverter(String value) {
+}
+
+record LateConverter(String value) {
 }
 
 class NoConverter {
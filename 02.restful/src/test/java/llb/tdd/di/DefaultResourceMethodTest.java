@@ -1,7 +1,9 @@
 package llb.tdd.di;
 
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.ResourceContext;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.UriInfo;
@@ -13,6 +15,8 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,7 +33,13 @@ public class DefaultResourceMethodTest extends InjectableCallerTest {
 					if(method.getName().equals("throwWebApplicationException"))
 						throw new WebApplicationException(300);
 
-					return "getList".equals(method.getName()) ? new ArrayList<String>() : null;});
+					if (method.getName().equals("getSuspended")) ((AsyncResponse) args[0]).resume("suspended");
+
+					return switch (method.getName()) {
+						case "getList" -> new ArrayList<String>();
+						case "getAsync" -> CompletableFuture.completedFuture("async");
+						default -> null;
+					};});
 	}
 
 	@Test
@@ -47,12 +57,40 @@ public class DefaultResourceMethodTest extends InjectableCallerTest {
 				resourceMethod.call(resourceContext, builder));
 	}
 
+	@Test
+	public void should_keep_completion_stage_as_entity_for_asynchronous_method() throws Exception {
+		DefaultResourceMethod resourceMethod = getResourceMethod("getAsync");
+
+		GenericEntity<?> entity = resourceMethod.call(resourceContext, builder);
+
+		assertEquals(CallableResourceMethods.class.getMethod("getAsync").getGenericReturnType(), entity.getType());
+		assertEquals("async", ((CompletionStage<?>) entity.getEntity()).toCompletableFuture().get());
+	}
+
+	@Test
+	public void should_return_completion_stage_of_suspended_async_response() throws Exception {
+		DefaultResourceMethod resourceMethod = getResourceMethod("getSuspended", AsyncResponse.class);
+
+		GenericEntity<?> entity = resourceMethod.call(resourceContext, builder);
+
+		assertEquals(CompletionStage.class, entity.getType());
+		assertEquals("suspended", ((CompletionStage<?>) entity.getEntity()).toCompletableFuture().get());
+	}
+
 	@Test
 	public void should_call_resource_method_with_void_return_type() throws NoSuchMethodException {
 		DefaultResourceMethod resourceMethod = getResourceMethod("post");
 		assertNull(resourceMethod.call(resourceContext, builder));
 	}
 
+	@Test
+	public void should_fail_to_check_consumed_media_type_without_request() throws NoSuchMethodException {
+		DefaultResourceMethod resourceMethod = getResourceMethod("postText");
+
+		assertThrows(IllegalStateException.class, () -> resourceMethod.call(resourceContext, builder));
+		assertNull(lastCall);
+	}
+
 	@Test
 	public void should_not_wrap_around_web_application_exception() throws NoSuchMethodException {
 		parameters.put("param", List.of("param"));
@@ -79,12 +117,22 @@ public class DefaultResourceMethodTest extends InjectableCallerTest {
 		@POST
 		void post();
 
+		@POST
+		@Consumes("text/plain")
+		void postText();
+
 		@GET
 		String get();
 
 		@GET
 		List<String> getList();
 
+		@GET
+		CompletionStage<String> getAsync();
+
+		@GET
+		void getSuspended(@Suspended AsyncResponse response);
+
 		@GET
 		String getPathParam(@PathParam("param") String value);
 
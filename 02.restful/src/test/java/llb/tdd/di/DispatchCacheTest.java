@@ -0,0 +1,55 @@
+package llb.tdd.di;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: DispatchCacheTest
+ * @date 2022-11-21 下午8:40
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class DispatchCacheTest {
+
+	@Test
+	public void should_count_hits_and_misses() {
+		DispatchCache<String, String> cache = new DispatchCache<>(4);
+
+		assertNull(cache.get("GET /users"));
+		cache.put("GET /users", "users");
+		assertEquals("users", cache.get("GET /users"));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void should_evict_least_recently_used_entry_when_full() {
+		DispatchCache<String, String> cache = new DispatchCache<>(1);
+		cache.put("GET /users", "users");
+		cache.put("GET /orders", "orders");
+
+		assertNull(cache.get("GET /users"));
+		assertEquals("orders", cache.get("GET /orders"));
+		assertEquals(1, cache.getEvictions());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void should_never_hold_more_entries_than_size() {
+		DispatchCache<Integer, Integer> cache = new DispatchCache<>(20);
+		for (int i = 0; i < 1000; i++) cache.put(i, i);
+
+		assertTrue(cache.size() <= 20);
+		assertEquals(1000 - cache.size(), cache.getEvictions());
+	}
+
+	@Test
+	public void should_reject_non_positive_size() {
+		assertThrows(IllegalArgumentException.class, () -> new DispatchCache<>(0));
+	}
+}
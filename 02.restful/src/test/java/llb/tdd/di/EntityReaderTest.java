@@ -0,0 +1,229 @@
+package llb.tdd.di;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ResourceContext;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.Providers;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Parameter;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: EntityReaderTest
+ * @date 2022-11-29 下午8:10
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class EntityReaderTest {
+	private ResourceContext resourceContext;
+	private HttpServletRequest request;
+	private Providers providers;
+
+	@BeforeEach
+	public void before() throws Exception {
+		resourceContext = Mockito.mock(ResourceContext.class);
+		request = Mockito.mock(HttpServletRequest.class);
+		providers = Mockito.mock(Providers.class);
+		when(resourceContext.getResource(eq(HttpServletRequest.class))).thenReturn(request);
+		when(resourceContext.getResource(eq(Providers.class))).thenReturn(providers);
+		when(request.getContentLengthLong()).thenReturn(-1L);
+		when(request.getHeaderNames()).thenReturn(Collections.emptyEnumeration());
+		body("request body");
+	}
+
+	@Test
+	public void should_read_entity_with_message_body_reader() throws Exception {
+		MessageBodyReader<String> reader = Mockito.mock(MessageBodyReader.class);
+		when(reader.readFrom(eq(String.class), eq(String.class), any(), eq(MediaType.APPLICATION_OCTET_STREAM_TYPE), any(), any()))
+				.thenAnswer(invocation -> new String(invocation.getArgument(5, InputStream.class).readAllBytes(), StandardCharsets.UTF_8));
+		when(providers.getMessageBodyReader(eq(String.class), eq(String.class), any(), eq(MediaType.APPLICATION_OCTET_STREAM_TYPE))).thenReturn(reader);
+
+		assertEquals("request body", entity("upload", String.class).bind(resourceContext, null));
+	}
+
+	@Test
+	public void should_resolve_message_body_reader_once_for_same_media_type() throws Exception {
+		MessageBodyReader<String> reader = Mockito.mock(MessageBodyReader.class);
+		when(providers.getMessageBodyReader(eq(String.class), eq(String.class), any(), any())).thenReturn(reader);
+		EntityReader entity = entity("upload", String.class);
+
+		entity.bind(resourceContext, null);
+		entity.bind(resourceContext, null);
+
+		verify(providers, times(1)).getMessageBodyReader(eq(String.class), eq(String.class), any(), any());
+	}
+
+	@Test
+	public void should_respond_415_if_no_message_body_reader_found() throws Exception {
+		WebApplicationException exception = assertThrows(WebApplicationException.class, () -> entity("upload", String.class).bind(resourceContext, null));
+
+		assertEquals(415, exception.getResponse().getStatus());
+	}
+
+	@Test
+	public void should_fail_to_bind_entity_without_request() {
+		when(resourceContext.getResource(eq(HttpServletRequest.class))).thenReturn(null);
+
+		assertThrows(IllegalStateException.class, () -> entity("upload", String.class).bind(resourceContext, null));
+		verifyNoInteractions(providers);
+	}
+
+	@Test
+	public void should_pass_request_stream_to_input_stream_parameter() throws Exception {
+		InputStream stream = (InputStream) entity("stream", InputStream.class).bind(resourceContext, null);
+
+		assertEquals("request body", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+		verifyNoInteractions(providers);
+	}
+
+	@Test
+	public void should_pass_request_channel_to_readable_byte_channel_parameter() throws Exception {
+		ReadableByteChannel channel = (ReadableByteChannel) entity("channel", ReadableByteChannel.class).bind(resourceContext, null);
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+
+		channel.read(buffer);
+
+		assertEquals("request body", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void should_respond_413_if_content_length_exceeds_limit() throws Exception {
+		when(request.getContentLengthLong()).thenReturn(100L);
+
+		WebApplicationException exception = assertThrows(WebApplicationException.class, () -> entity("stream", InputStream.class, 10).bind(resourceContext, null));
+
+		assertEquals(413, exception.getResponse().getStatus());
+		verify(request, never()).getInputStream();
+	}
+
+	@Test
+	public void should_take_max_entity_size_from_request() throws Exception {
+		when(request.getAttribute(EntityReader.MaxEntitySize)).thenReturn(10L);
+		when(request.getContentLengthLong()).thenReturn(100L);
+
+		WebApplicationException exception = assertThrows(WebApplicationException.class, () -> entity("stream", InputStream.class).bind(resourceContext, null));
+
+		assertEquals(413, exception.getResponse().getStatus());
+	}
+
+	@Test
+	public void should_resolve_message_body_reader_by_type_and_subtype_only() throws Exception {
+		mediaTypes();
+		MessageBodyReader<String> reader = Mockito.mock(MessageBodyReader.class);
+		when(providers.getMessageBodyReader(eq(String.class), eq(String.class), any(), any())).thenReturn(reader);
+		EntityReader entity = entity("upload", String.class);
+
+		when(request.getContentType()).thenReturn("application/json; x=1");
+		entity.bind(resourceContext, null);
+		when(request.getContentType()).thenReturn("application/json; x=2");
+		entity.bind(resourceContext, null);
+
+		verify(providers, times(1)).getMessageBodyReader(eq(String.class), eq(String.class), any(), any());
+	}
+
+	@Test
+	public void should_respond_400_if_content_type_malformed() throws Exception {
+		mediaTypes();
+		when(request.getContentType()).thenReturn("json");
+
+		WebApplicationException exception = assertThrows(WebApplicationException.class, () -> entity("upload", String.class).bind(resourceContext, null));
+
+		assertEquals(400, exception.getResponse().getStatus());
+		verifyNoInteractions(providers);
+	}
+
+	@Test
+	public void should_respond_413_if_streamed_body_exceeds_limit() throws Exception {
+		InputStream stream = (InputStream) entity("stream", InputStream.class, 10).bind(resourceContext, null);
+
+		WebApplicationException exception = assertThrows(WebApplicationException.class, stream::readAllBytes);
+
+		assertEquals(413, exception.getResponse().getStatus());
+	}
+
+	private void mediaTypes() {
+		RuntimeDelegate delegate = Mockito.mock(RuntimeDelegate.class);
+		RuntimeDelegate.setInstance(delegate);
+		when(delegate.createHeaderDelegate(eq(MediaType.class))).thenReturn(new RuntimeDelegate.HeaderDelegate<>() {
+			@Override
+			public MediaType fromString(String value) {
+				String[] parts = value.split(";")[0].trim().split("/");
+				if (parts.length != 2) throw new IllegalArgumentException(value);
+				return new MediaType(parts[0], parts[1]);
+			}
+
+			@Override
+			public String toString(MediaType value) {
+				return value.getType() + "/" + value.getSubtype();
+			}
+		});
+	}
+
+	private void body(String body) throws IOException {
+		ByteArrayInputStream input = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+		when(request.getInputStream()).thenReturn(new ServletInputStream() {
+			@Override
+			public boolean isFinished() {
+				return input.available() == 0;
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setReadListener(ReadListener readListener) {
+			}
+
+			@Override
+			public int read() {
+				return input.read();
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				return input.read(b, off, len);
+			}
+		});
+	}
+
+	private EntityReader entity(String method, Class<?> type) throws NoSuchMethodException {
+		return new EntityReader(Uploads.class.getMethod(method, type).getParameters()[0]);
+	}
+
+	private EntityReader entity(String method, Class<?> type, long maxEntitySize) throws NoSuchMethodException {
+		Parameter parameter = Uploads.class.getMethod(method, type).getParameters()[0];
+		return new EntityReader(parameter, maxEntitySize);
+	}
+
+	interface Uploads {
+		void upload(String body);
+
+		void stream(InputStream body);
+
+		void channel(ReadableByteChannel body);
+	}
+}
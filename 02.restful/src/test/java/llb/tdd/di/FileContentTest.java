@@ -0,0 +1,89 @@
+package llb.tdd.di;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: FileContentTest
+ * @date 2022-11-28 下午8:10
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class FileContentTest {
+	@ParameterizedTest(name = "{3}")
+	@CsvSource(delimiter = '|', textBlock = """
+			bytes=0-99          | 1000  | [0, 99]       | first bytes
+			bytes=900-          | 1000  | [900, 999]    | open ended
+			bytes=-100          | 1000  | [900, 999]    | suffix
+			bytes=-2000         | 1000  | [0, 999]      | suffix longer than content
+			bytes=900-2000      | 1000  | [900, 999]    | end beyond content
+			bytes=1000-         | 1000  | []            | start beyond content
+			bytes=-0            | 1000  | []            | empty suffix
+			bytes=0-9,20-29     | 1000  | null          | multiple ranges ignored
+			bytes=20-9          | 1000  | null          | reversed range ignored
+			items=0-9           | 1000  | null          | unknown unit ignored
+			bytes=a-b           | 1000  | null          | malformed range ignored
+			""")
+	public void should_parse_single_byte_range(String header, long length, String expected, String context) {
+		long[] range = FileContent.range(header, length);
+		assertEquals(expected, range == null ? "null" : Arrays.toString(range));
+	}
+
+	@Test
+	public void should_fail_if_file_shrinks_below_content_length() throws Exception {
+		Path file = Files.createTempFile("content", ".txt");
+		try {
+			Files.writeString(file, "0123456789");
+			HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setWriteListener(WriteListener listener) {
+				}
+
+				@Override
+				public void write(int b) {
+					output.write(b);
+				}
+			});
+
+			try (FileContent content = FileContent.of(file)) {
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+					channel.truncate(4);
+				}
+				assertThrows(EOFException.class, () -> content.send(Mockito.mock(HttpServletRequest.class), response, false));
+			}
+
+			Mockito.verify(response).setContentLengthLong(10);
+			assertEquals("0123", output.toString());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -1,10 +1,12 @@
 package llb.tdd.di;
 
+import jakarta.ws.rs.core.GenericEntity;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * @author LiLuBing
@@ -25,6 +27,15 @@ public class HeadResourceMethodTest {
 		assertEquals(uriTemplate, headResourceMethod.getUriTemplate());
 	}
 
+	@Test
+	public void should_call_method_and_return_its_entity() {
+		ResourceRouter.ResourceMethod method = Mockito.mock(ResourceRouter.ResourceMethod.class);
+		HeadResourceMethod headResourceMethod = new HeadResourceMethod(method);
+		GenericEntity<String> entity = new GenericEntity<>("head", String.class);
+		Mockito.when(method.call(null, null)).thenReturn((GenericEntity) entity);
+		assertSame(entity, headResourceMethod.call(null, null));
+	}
+
 	public void should_delegate_to_method_for_http_method() {
 		ResourceRouter.ResourceMethod method = Mockito.mock(ResourceRouter.ResourceMethod.class);
 		HeadResourceMethod headResourceMethod = new HeadResourceMethod(method);
@@ -41,7 +41,7 @@ public class IntegrationTest extends ServletTest {
 	@Override
 	protected Servlet getServlet() {
 		runtime = Mockito.mock(Runtime.class);
-		router = new DefaultResourceRouter(runtime, List.of(new ResourceHandler(UsersApi.class)));
+		router = new DefaultResourceRouter(runtime, List.of(new ResourceHandler(UsersApi.class), new ResourceHandler(StacklessUsersApi.class)));
 		resourceContext = Mockito.mock(ResourceContext.class);
 		providers = Mockito.mock(Providers.class);
 		uriInfo = Mockito.mock(UriInfo.class);
@@ -51,6 +51,7 @@ public class IntegrationTest extends ServletTest {
 		when(runtime.createResourceContext(any(), any())).thenReturn(resourceContext);
 		when(runtime.getProviders()).thenReturn(providers);
 		when(resourceContext.getResource(eq(UsersApi.class))).thenReturn(new UsersApi());
+		when(resourceContext.getResource(eq(StacklessUsersApi.class))).thenReturn(new StacklessUsersApi());
 
 		return new ResourceServlet(runtime);
 	}
@@ -111,6 +112,18 @@ public class IntegrationTest extends ServletTest {
 		assertEquals(404, response.statusCode());
 	}
 
+	@Test
+	public void should_return_404_if_user_id_not_found() {
+		HttpResponse<String> response = get("/users/zhang-san");
+		assertEquals(404, response.statusCode());
+	}
+
+	@Test
+	public void should_return_404_from_stackless_exception_if_user_id_not_found() {
+		HttpResponse<String> response = get("/stackless-users/zhang-san");
+		assertEquals(404, response.statusCode());
+	}
+
 	@Test
 	public void should_return_to_string_of_user_if_user_exist() {
 		HttpResponse<String> response = get("/users/john-smith");
@@ -171,6 +184,22 @@ class UsersApi {
 	}
 }
 
+@Path("/stackless-users")
+class StacklessUsersApi {
+
+	private List<User> users;
+
+	public StacklessUsersApi() {
+		users = List.of(new User("john-smith", new UserData("John Smith","john.smith@email.com")));
+	}
+
+	@Path("/{id}")
+	public UserApi findUserById(@PathParam("id") String id) {
+		return users.stream().filter(user -> user.getId().equals(id)).findFirst()
+				.map(UserApi::new).orElseThrow(StacklessWebApplicationException::notFound);
+	}
+}
+
 class UserApi {
 	private User user;
 
@@ -0,0 +1,151 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ResourceContext;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mockito;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: MethodInvokerTest
+ * @date 2022-11-18 7:40:12
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class MethodInvokerTest {
+	private ResourceContext resourceContext;
+	private UriInfoBuilder builder;
+	private MultivaluedHashMap<String, String> parameters;
+
+	@BeforeEach
+	public void before() {
+		resourceContext = Mockito.mock(ResourceContext.class);
+		builder = Mockito.mock(UriInfoBuilder.class);
+		UriInfo uriInfo = Mockito.mock(UriInfo.class);
+		parameters = new MultivaluedHashMap<>();
+
+		when(builder.getLastMatchedResource()).thenReturn(new Resources());
+		when(builder.createUriInfo()).thenReturn(uriInfo);
+		when(uriInfo.getQueryParameters()).thenReturn(parameters);
+	}
+
+	@ParameterizedTest
+	@EnumSource(MethodInvoker.Invocation.class)
+	public void should_invoke_method_with_bound_parameters(MethodInvoker.Invocation invocation) throws NoSuchMethodException {
+		parameters.put("name", List.of("john"));
+
+		MethodInvoker invoker = new MethodInvoker(Resources.class.getMethod("greet", String.class), invocation);
+
+		assertEquals("hello john", invoker.invoke(resourceContext, builder));
+	}
+
+	@ParameterizedTest
+	@EnumSource(MethodInvoker.Invocation.class)
+	public void should_unbox_arguments_and_box_primitive_result(MethodInvoker.Invocation invocation) throws NoSuchMethodException {
+		parameters.put("count", List.of("21"));
+		parameters.put("name", List.of("john"));
+
+		MethodInvoker invoker = new MethodInvoker(Resources.class.getMethod("twice", int.class, String.class), invocation);
+
+		assertEquals(42, invoker.invoke(resourceContext, builder));
+	}
+
+	@ParameterizedTest
+	@EnumSource(MethodInvoker.Invocation.class)
+	public void should_return_null_for_void_method(MethodInvoker.Invocation invocation) throws NoSuchMethodException {
+		MethodInvoker invoker = new MethodInvoker(Resources.class.getMethod("nothing"), invocation);
+
+		assertNull(invoker.invoke(resourceContext, builder));
+	}
+
+	@ParameterizedTest
+	@EnumSource(MethodInvoker.Invocation.class)
+	public void should_invoke_void_method_with_bound_parameters(MethodInvoker.Invocation invocation) throws NoSuchMethodException {
+		parameters.put("name", List.of("john"));
+		Resources.recorded = null;
+		MethodInvoker invoker = new MethodInvoker(Resources.class.getMethod("record", String.class), invocation);
+
+		assertNull(invoker.invoke(resourceContext, builder));
+		assertEquals("john", Resources.recorded);
+	}
+
+	@Test
+	public void should_compile_void_method_to_lambda_invoker() throws Exception {
+		Method method = Resources.class.getMethod("record", String.class);
+
+		assertNotNull(MethodInvoker.compiled(method, MethodHandles.lookup().unreflect(method)));
+	}
+
+	@ParameterizedTest
+	@EnumSource(MethodInvoker.Invocation.class)
+	public void should_not_wrap_around_web_application_exception(MethodInvoker.Invocation invocation) throws NoSuchMethodException {
+		Response response = Mockito.mock(Response.class);
+		when(response.getStatusInfo()).thenReturn(Response.Status.FORBIDDEN);
+		Resources.response = response;
+		MethodInvoker invoker = new MethodInvoker(Resources.class.getMethod("throwWebApplicationException"), invocation);
+
+		WebApplicationException exception = assertThrows(WebApplicationException.class, () -> invoker.invoke(resourceContext, builder));
+		assertSame(response, exception.getResponse());
+	}
+
+	@ParameterizedTest
+	@EnumSource(MethodInvoker.Invocation.class)
+	public void should_wrap_other_exception_as_runtime_exception(MethodInvoker.Invocation invocation) throws NoSuchMethodException {
+		MethodInvoker invoker = new MethodInvoker(Resources.class.getMethod("throwIllegalState"), invocation);
+
+		RuntimeException exception = assertThrows(RuntimeException.class, () -> invoker.invoke(resourceContext, builder));
+		assertInstanceOf(IllegalStateException.class, exception.getCause());
+	}
+
+	static class Resources {
+		static Response response;
+		static String recorded;
+
+		@GET
+		public String greet(@QueryParam("name") String name) {
+			return "hello " + name;
+		}
+
+		@GET
+		public int twice(@QueryParam("count") int count, @QueryParam("name") String name) {
+			return count * 2;
+		}
+
+		@GET
+		public void nothing() {
+		}
+
+		@POST
+		public void record(@QueryParam("name") String name) {
+			recorded = name;
+		}
+
+		@GET
+		public String throwWebApplicationException() {
+			throw new WebApplicationException(response);
+		}
+
+		@GET
+		public String throwIllegalState() {
+			throw new IllegalStateException();
+		}
+	}
+}
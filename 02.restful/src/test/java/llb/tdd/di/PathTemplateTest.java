@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.Map;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -67,6 +70,56 @@ public class PathTemplateTest {
         assertTrue(rhs.compareTo(lhs) > 0);
     }
 
+    @Test
+    public void should_extract_path_parameters_from_matched_offsets_once() {
+        PathTemplate template = new PathTemplate("/users/{id}/orders/{order:[0-9]+}");
+        UriTemplate.MatchResult result = template.match("/users/john/orders/42/items").get();
+
+        assertEquals("/users/john/orders/42", result.getMatched());
+        assertEquals("/items", result.getRemaining());
+        assertEquals(Map.of("id", "john", "order", "42"), result.getMatchedPathParameters());
+        assertSame(result.getMatchedPathParameters(), result.getMatchedPathParameters());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', textBlock = """
+            /users                      | /users
+            /users                      | /users/1
+            /users                      | /users1
+            /users                      | /user
+            /users/                     | /users//1
+            ''                          | ''
+            ''                          | /1
+            users                       | users/1
+            /users/{id}                 | /users/1
+            /users/{id}                 | /users/
+            /users/{id}                 | /users//orders
+            /users/{id}/orders/{order}  | /users/1/orders/2/items
+            /users/{id}/orders/{order}  | /users/1/order/2
+            /{resource}/{id}            | /users/1
+            /users/{id:[0-9]+}          | /users/12
+            /users.json                 | /usersxjson
+            """)
+    public void should_match_same_as_regex_template(String template, String path) {
+        Optional<UriTemplate.MatchResult> expected = PathTemplate.regex(template).match(path);
+        Optional<UriTemplate.MatchResult> actual = new PathTemplate(template).match(path);
+
+        assertEquals(expected.isPresent(), actual.isPresent());
+        expected.ifPresent(result -> {
+            assertEquals(result.getMatched(), actual.get().getMatched());
+            assertEquals(result.getRemaining(), actual.get().getRemaining());
+            assertEquals(result.getMatchedPathParameters(), actual.get().getMatchedPathParameters());
+            assertEquals(0, result.compareTo(actual.get()));
+        });
+    }
+
+    @Test
+    public void should_not_match_remaining_with_line_terminator_same_as_regex_template() {
+        assertTrue(PathTemplate.regex("/users/{id}").match("/users/1/a\nb").isEmpty());
+        assertTrue(new PathTemplate("/users/{id}").match("/users/1/a\nb").isEmpty());
+        assertEquals("1\n2", new PathTemplate("/users/{id}").match("/users/1\n2").get().getMatchedPathParameters().get("id"));
+    }
+
     @Test
     public void should_throw_illegal_argument_exception_if_variable_redefined() {
         assertThrows(IllegalArgumentException.class, () -> new PathTemplate("/users/{id:[0-9]+}/{id}"));
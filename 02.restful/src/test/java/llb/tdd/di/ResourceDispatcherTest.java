@@ -1,6 +1,8 @@
 package llb.tdd.di;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
 import jakarta.ws.rs.container.ResourceContext;
 import jakarta.ws.rs.core.*;
 import jakarta.ws.rs.ext.RuntimeDelegate;
@@ -114,6 +116,13 @@ public class ResourceDispatcherTest {
 		assertNull(response.getGenericEntity());
 		assertEquals(404, response.getStatus());
 	}
+	@Test
+	public void should_return_shared_404_response_without_response_builder() {
+		ResourceRouter router = new DefaultResourceRouter(runtime, List.of(
+				rootResource(unmatched("/users/1"))));
+
+		assertSame(StatusResponse.NotFound, router.dispatch(request, context));
+	}
 	//TODO 如果ResourceMethod返回null, 则构造204的Response
 	@Test
 	public void should_return_204_if_method_return_null() {
@@ -126,6 +135,83 @@ public class ResourceDispatcherTest {
 		assertEquals(204, response.getStatus());
 	}
 
+	@Test
+	public void should_reuse_cached_dispatch_for_same_method_and_path() {
+		DefaultResourceRouter router = cachedRouter();
+
+		assertEquals("user", router.dispatch(request, context).getGenericEntity().getEntity());
+		assertEquals("user", router.dispatch(request, context).getGenericEntity().getEntity());
+
+		DispatchCache<?, ?> cache = router.getDispatchCache().get();
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void should_select_resource_method_once_on_cache_miss() {
+		when(runtime.getDispatchCacheSize()).thenReturn(8);
+		when(runtime.createUriInfoBuilder(same(request))).thenAnswer(invocation -> new StubUriInfoBuilder());
+		when(request.getHeaders(eq(HttpHeaders.ACCEPT))).thenAnswer(invocation -> new Vector<>(List.of(MediaType.WILDCARD)).elements());
+		when(context.getResource(eq(Users.class))).thenReturn(new Users());
+		ResourceHandler handler = Mockito.spy(new ResourceHandler(Users.class));
+		DefaultResourceRouter router = new DefaultResourceRouter(runtime, List.of(handler));
+
+		assertEquals("user", router.dispatch(request, context).getGenericEntity().getEntity());
+		assertEquals("user", router.dispatch(request, context).getGenericEntity().getEntity());
+
+		Mockito.verify(handler, Mockito.times(1)).findResourceMethod(any(), eq("GET"), any());
+	}
+
+	@Test
+	public void should_not_cache_dispatch_through_sub_resource_locator() {
+		when(request.getServletPath()).thenReturn("/users/1/orders");
+		DefaultResourceRouter router = cachedRouter();
+
+		assertEquals("orders", router.dispatch(request, context).getGenericEntity().getEntity());
+		assertEquals("orders", router.dispatch(request, context).getGenericEntity().getEntity());
+
+		DispatchCache<?, ?> cache = router.getDispatchCache().get();
+		assertEquals(2, cache.getMisses());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void should_not_create_dispatch_cache_by_default() {
+		DefaultResourceRouter router = new DefaultResourceRouter(runtime, List.of(new ResourceHandler(Users.class)));
+
+		assertTrue(router.getDispatchCache().isEmpty());
+	}
+
+	private DefaultResourceRouter cachedRouter() {
+		when(runtime.getDispatchCacheSize()).thenReturn(8);
+		when(runtime.createUriInfoBuilder(same(request))).thenAnswer(invocation -> new StubUriInfoBuilder());
+		when(request.getHeaders(eq(HttpHeaders.ACCEPT))).thenAnswer(invocation -> new Vector<>(List.of(MediaType.WILDCARD)).elements());
+		when(context.getResource(eq(Users.class))).thenReturn(new Users());
+		return new DefaultResourceRouter(runtime, List.of(new ResourceHandler(Users.class)));
+	}
+
+	@Path("/users")
+	public static class Users {
+		@GET
+		@Path("/{id}")
+		public String get() {
+			return "user";
+		}
+
+		@Path("/{id}/orders")
+		public Orders orders() {
+			return new Orders();
+		}
+	}
+
+	public static class Orders {
+		@GET
+		public String all() {
+			return "orders";
+		}
+	}
+
 	private ResourceRouter.Resource rootResource(StubUriTemplate stub) {
 		ResourceRouter.Resource unmatched = Mockito.mock(ResourceRouter.Resource.class);
 		when(unmatched.getUriTemplate()).thenReturn(stub.uriTemplate);
@@ -108,6 +108,153 @@ public class ResourceMethodsTest {
     }
 
 
+    @ParameterizedTest(name = "{2}")
+    @CsvSource(delimiter = '|', textBlock = """
+            /1          | GET,HEAD,DELETE,OPTIONS   | methods combined from matched templates
+            /2          | GET,HEAD,OPTIONS          | methods from single matched template
+            /1/unknown  | OPTIONS                   | no template matched
+            /1/{a}/{a}  | OPTIONS                   | unmatched path not parsed as template
+            /1/(/x      | OPTIONS                   | unmatched path with regex characters
+            """)
+    public void should_answer_options_from_precomputed_allowed_methods(String path, String allowed, String context) {
+        RuntimeDelegate delegate = Mockito.mock(RuntimeDelegate.class);
+        RuntimeDelegate.setInstance(delegate);
+        Mockito.when(delegate.createResponseBuilder()).thenAnswer(invocation -> new StubResponseBuilder());
+        ResourceMethods resourceMethods = new ResourceMethods(Options.class.getMethods());
+
+        ResourceRouter.ResourceMethod method = resourceMethods.findResourceMethods(path, "OPTIONS").get();
+        GenericEntity<?> entity = method.call(Mockito.mock(ResourceContext.class), Mockito.mock(UriInfoBuilder.class));
+
+        assertEquals(Set.of(allowed.split(",")), ((Response) entity.getEntity()).getAllowedMethods());
+        assertSame(method, resourceMethods.findResourceMethods(path, "OPTIONS").get());
+        assertSame(entity, method.call(Mockito.mock(ResourceContext.class), Mockito.mock(UriInfoBuilder.class)));
+    }
+
+    @Test
+    public void should_share_options_for_unmatched_paths() {
+        ResourceMethods resourceMethods = new ResourceMethods(Options.class.getMethods());
+
+        assertSame(resourceMethods.findResourceMethods("/1/unknown", "OPTIONS").get(),
+                resourceMethods.findResourceMethods("/2/unknown", "OPTIONS").get());
+    }
+
+    @Test
+    public void should_not_share_combined_options_between_different_templates() {
+        ResourceMethods resourceMethods = new ResourceMethods(SameAllowed.class.getMethods());
+
+        ResourceRouter.ResourceMethod first = resourceMethods.findResourceMethods("/a/b", "OPTIONS").get();
+        ResourceRouter.ResourceMethod second = resourceMethods.findResourceMethods("/c/d", "OPTIONS").get();
+
+        assertNotSame(first, second);
+        assertTrue(first.getUriTemplate().match("/a/b").isPresent());
+        assertTrue(second.getUriTemplate().match("/c/d").isPresent());
+    }
+
+    @ParameterizedTest(name = "{2}")
+    @CsvSource(delimiter = '|', textBlock = """
+            application/json                        | Negotiated.json   | exact media type
+            text/plain;q=0.5, application/json;q=0.8 | Negotiated.json   | highest quality
+            text/*                                  | Negotiated.plain  | wildcard subtype
+            text/plain, application/json;q=0.9      | Negotiated.plain  | preferred over lower quality
+            """)
+    public void should_select_resource_method_by_accept(String accept, String resourceMethod, String context) {
+        ResourceMethods resourceMethods = new ResourceMethods(Negotiated.class.getMethods());
+
+        ResourceRouter.ResourceMethod method = resourceMethods.findResourceMethods("", "GET", ContentNegotiation.accept(new String[]{accept})).get();
+
+        assertEquals(resourceMethod, method.toString());
+    }
+
+    @Test
+    public void should_throw_not_acceptable_if_no_resource_method_produces_accepted_type() {
+        ResourceMethods resourceMethods = new ResourceMethods(Negotiated.class.getMethods());
+
+        WebApplicationException exception = assertThrows(WebApplicationException.class,
+                () -> resourceMethods.findResourceMethods("", "GET", ContentNegotiation.accept(new String[]{"image/png"})));
+
+        assertEquals(406, exception.getResponse().getStatus());
+        assertTrue(resourceMethods.findResourceMethods("/unknown", "GET", ContentNegotiation.accept(new String[]{"image/png"})).isEmpty());
+    }
+
+    @Test
+    public void should_negotiate_only_among_methods_of_most_specific_template() {
+        ResourceMethods resourceMethods = new ResourceMethods(Profiles.class.getMethods());
+
+        assertEquals("Profiles.me", resourceMethods.findResourceMethods("/me", "GET", ContentNegotiation.accept(new String[]{MediaType.TEXT_HTML})).get().toString());
+        WebApplicationException exception = assertThrows(WebApplicationException.class,
+                () -> resourceMethods.findResourceMethods("/me", "GET", ContentNegotiation.accept(new String[]{MediaType.APPLICATION_JSON})));
+        assertEquals(406, exception.getResponse().getStatus());
+    }
+
+    static class Profiles {
+        @GET
+        @Path("/me")
+        @Produces(MediaType.TEXT_HTML)
+        public String me() {
+            return "<html/>";
+        }
+
+        @GET
+        @Path("/{id}")
+        @Produces(MediaType.APPLICATION_JSON)
+        public String byId() {
+            return "{}";
+        }
+    }
+
+    static class Negotiated {
+        @GET
+        @Produces(MediaType.APPLICATION_JSON)
+        public String json() {
+            return "{}";
+        }
+
+        @GET
+        @Produces(MediaType.TEXT_PLAIN)
+        public String plain() {
+            return "plain";
+        }
+    }
+
+    static class Options {
+        @GET
+        @Path("/{id}")
+        public String get() {
+            return "get";
+        }
+
+        @DELETE
+        @Path("/1")
+        public void delete() {
+        }
+    }
+
+    static class SameAllowed {
+        @GET
+        @Path("/a/{x}")
+        public String a() {
+            return "a";
+        }
+
+        @GET
+        @Path("/{y}/b")
+        public String b() {
+            return "b";
+        }
+
+        @GET
+        @Path("/c/{z}")
+        public String c() {
+            return "c";
+        }
+
+        @GET
+        @Path("/{w}/d")
+        public String d() {
+            return "d";
+        }
+    }
+
     @Path("/missing-messages")
     static class MissingMessages {
         @GET
@@ -0,0 +1,76 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.ext.Providers;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: ResourceServerTest
+ * @date 2022-11-26 下午3:40
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class ResourceServerTest {
+	private ResourceServer server;
+
+	@BeforeEach
+	public void before() {
+		Runtime runtime = Mockito.mock(Runtime.class);
+		ResourceRouter router = Mockito.mock(ResourceRouter.class);
+		OutboundResponse response = Mockito.mock(OutboundResponse.class);
+		when(response.getStatus()).thenReturn(204);
+		when(response.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+		when(runtime.getProviders()).thenReturn(Mockito.mock(Providers.class));
+		when(runtime.getResourceRouter()).thenReturn(router);
+		when(router.dispatch(any(), any())).thenReturn(response);
+		server = new ResourceServer(runtime);
+		server.port(0);
+	}
+
+	@AfterEach
+	public void after() throws Exception {
+		server.stop();
+	}
+
+	@Test
+	public void should_serve_resource_servlet_on_platform_threads() throws Exception {
+		server.threads(ResourceServer.Threads.Platform);
+		server.acceptors(1);
+		server.selectors(1);
+		server.start();
+
+		assertEquals(204, get().statusCode());
+		assertFalse(server.isVirtualThreads());
+	}
+
+	@Test
+	public void should_fall_back_to_platform_threads_if_virtual_threads_not_supported() throws Exception {
+		server.threads(ResourceServer.Threads.Virtual);
+		server.start();
+
+		assertEquals(204, get().statusCode());
+		assertEquals(VirtualThreads.areSupported(), server.isVirtualThreads());
+	}
+
+	private HttpResponse<String> get() throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/test")).GET().build();
+		return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+	}
+}
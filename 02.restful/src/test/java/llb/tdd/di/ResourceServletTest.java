@@ -9,22 +9,41 @@ import jakarta.ws.rs.ext.Providers;
 import jakarta.ws.rs.ext.RuntimeDelegate;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 
@@ -85,6 +104,43 @@ public class ResourceServletTest extends ServletTest {
 			assertArrayEquals(new String[]{"SESSION_ID=session", "USER_ID=user"}, httpResponse.headers().allValues("Set-Cookie").toArray(String[]::new));
 		}
 
+		@Test
+		public void should_write_encoded_headers_without_header_delegate() throws Exception {
+			response().headers(HttpHeaders.CACHE_CONTROL, EncodedHeader.of("no-cache")).returnFrom(router);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals("no-cache", httpResponse.headers().firstValue(HttpHeaders.CACHE_CONTROL).get());
+			Mockito.verify(delegate, Mockito.never()).createHeaderDelegate(eq(EncodedHeader.class));
+		}
+
+		@Test
+		public void should_create_header_delegate_once_per_header_type() throws Exception {
+			response().headers("Set-Cookie", new NewCookie.Builder("SESSION_ID").value("session").build(),
+					new NewCookie.Builder("USER_ID").value("user").build()).returnFrom(router);
+			get("/test");
+			get("/test");
+			Mockito.verify(delegate, Mockito.times(1)).createHeaderDelegate(eq(NewCookie.class));
+		}
+
+		@Test
+		public void should_resolve_message_body_writer_once_for_repeated_responses() throws Exception {
+			response().returnFrom(router);
+			get("/test");
+			get("/test");
+			Mockito.verify(providers, Mockito.times(1)).getMessageBodyWriter(eq(String.class), eq(String.class), any(), eq(MediaType.TEXT_PLAIN_TYPE));
+		}
+
+		@Test
+		public void should_resolve_message_body_writer_again_after_runtime_providers_changed() throws Exception {
+			response().returnFrom(router);
+			get("/test");
+			Providers registered = Mockito.mock(Providers.class);
+			when(runtime.getProviders()).thenReturn(registered);
+			providers = registered;
+			response().returnFrom(router);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals("entity", httpResponse.body());
+		}
+
 		@Test
 		public void should_write_entity_to_http_response_using_message_body_writer() throws Exception {
 			response().entity(new GenericEntity<>("entity", String.class), new Annotation[0]).returnFrom(router);
@@ -100,6 +156,27 @@ public class ResourceServletTest extends ServletTest {
 			assertEquals("", httpResponse.body());
 		}
 
+		@Test
+		public void should_set_content_length_without_writing_entity_for_head_request() throws Exception {
+			response().returnFrom(router);
+			HttpResponse<String> httpResponse = head("/test");
+			assertEquals(Response.Status.OK.getStatusCode(), httpResponse.statusCode());
+			assertEquals("6", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).get());
+			assertEquals("", httpResponse.body());
+			Mockito.verify(providers, Mockito.never()).getMessageBodyWriter(any(), any(), any(), any());
+		}
+
+		@Test
+		public void should_use_content_length_from_message_body_writer_for_head_request() throws Exception {
+			MessageBodyWriter<Double> writer = Mockito.mock(MessageBodyWriter.class);
+			when(writer.getSize(eq(2.5), eq(Double.class), eq(Double.class), any(), any())).thenReturn(3L);
+			when(providers.getMessageBodyWriter(eq(Double.class), eq(Double.class), any(), any())).thenReturn(writer);
+			response().entity(new GenericEntity<>(2.5, Double.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = head("/test");
+			assertEquals("3", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).get());
+			Mockito.verify(writer, Mockito.never()).writeTo(any(), any(), any(), any(), any(), any(), any());
+		}
+
 		@Test
 		public void should_use_status_from_response() throws Exception {
 			response().status(Response.Status.NOT_MODIFIED).returnFrom(router);
@@ -108,6 +185,354 @@ public class ResourceServletTest extends ServletTest {
 		}
 	}
 
+	@Nested
+	class RespondForFileEntity {
+		private java.nio.file.Path file;
+
+		@BeforeEach
+		public void before() throws Exception {
+			file = Files.createTempFile("content", ".txt");
+			Files.writeString(file, "0123456789");
+		}
+
+		@AfterEach
+		public void after() throws Exception {
+			Files.deleteIfExists(file);
+		}
+
+		@Test
+		public void should_send_whole_file_with_content_length() throws Exception {
+			response().entity(new GenericEntity<>(file, java.nio.file.Path.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals(Response.Status.OK.getStatusCode(), httpResponse.statusCode());
+			assertEquals("10", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).get());
+			assertEquals("bytes", httpResponse.headers().firstValue("Accept-Ranges").get());
+			assertEquals("0123456789", httpResponse.body());
+		}
+
+		@Test
+		public void should_send_requested_range_of_file() throws Exception {
+			response().entity(new GenericEntity<>(file.toFile(), File.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = ranged("/test", "bytes=2-5");
+			assertEquals(Response.Status.PARTIAL_CONTENT.getStatusCode(), httpResponse.statusCode());
+			assertEquals("bytes 2-5/10", httpResponse.headers().firstValue("Content-Range").get());
+			assertEquals("2345", httpResponse.body());
+		}
+
+		@Test
+		public void should_respond_416_if_range_not_satisfiable() throws Exception {
+			response().entity(new GenericEntity<>(file, java.nio.file.Path.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = ranged("/test", "bytes=20-");
+			assertEquals(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), httpResponse.statusCode());
+			assertEquals("bytes */10", httpResponse.headers().firstValue("Content-Range").get());
+		}
+
+		@Test
+		public void should_send_remaining_bytes_of_byte_buffer() throws Exception {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(10).put("0123456789".getBytes()).flip().position(4);
+			response().entity(new GenericEntity<>(buffer, ByteBuffer.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = ranged("/test", "bytes=-3");
+			assertEquals("bytes 3-5/6", httpResponse.headers().firstValue("Content-Range").get());
+			assertEquals("789", httpResponse.body());
+		}
+
+		@Test
+		public void should_answer_head_request_with_file_size() throws Exception {
+			response().entity(new GenericEntity<>(file, java.nio.file.Path.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = head("/test");
+			assertEquals("10", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).get());
+		}
+
+		@Test
+		public void should_answer_head_request_with_requested_range() throws Exception {
+			response().entity(new GenericEntity<>(file, java.nio.file.Path.class), new Annotation[0]).returnFrom(router);
+			HttpRequest request = HttpRequest.newBuilder(path("/test")).header("Range", "bytes=2-5").method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+			HttpResponse<String> httpResponse = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+			assertEquals(Response.Status.PARTIAL_CONTENT.getStatusCode(), httpResponse.statusCode());
+			assertEquals("bytes 2-5/10", httpResponse.headers().firstValue("Content-Range").get());
+			assertEquals("4", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).get());
+		}
+
+		private HttpResponse<String> ranged(String path, String range) throws Exception {
+			HttpRequest request = HttpRequest.newBuilder(path(path)).header("Range", range).GET().build();
+			return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+		}
+	}
+
+	@Nested
+	class RespondForCompressedEntity {
+		private final String text = "compressible text ".repeat(100);
+
+		@BeforeEach
+		public void before() {
+			when(runtime.getCompression()).thenReturn(new Compression(MediaType.TEXT_PLAIN));
+		}
+
+		@Test
+		public void should_gzip_entity_if_accepted() throws Exception {
+			response().entity(new GenericEntity<>(text, String.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<byte[]> httpResponse = encoded("/test", "deflate;q=0.5, gzip");
+			assertEquals("gzip", httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).get());
+			assertEquals(HttpHeaders.ACCEPT_ENCODING, httpResponse.headers().firstValue(HttpHeaders.VARY).get());
+			assertEquals(text, new String(new GZIPInputStream(new ByteArrayInputStream(httpResponse.body())).readAllBytes()));
+		}
+
+		@Test
+		public void should_answer_head_with_same_encoding_as_get() throws Exception {
+			response().entity(new GenericEntity<>(text, String.class), new Annotation[0]).returnFrom(router);
+			HttpRequest request = HttpRequest.newBuilder(path("/test")).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+					.method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+			HttpResponse<byte[]> httpResponse = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+			assertEquals("gzip", httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).get());
+			assertEquals(HttpHeaders.ACCEPT_ENCODING, httpResponse.headers().firstValue(HttpHeaders.VARY).get());
+			assertEquals("", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).orElse(""));
+		}
+
+		@Test
+		public void should_answer_head_with_plain_length_below_min_size() throws Exception {
+			response().returnFrom(router);
+			HttpRequest request = HttpRequest.newBuilder(path("/test")).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+					.method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+			HttpResponse<byte[]> httpResponse = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+			assertTrue(httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+			assertEquals("6", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).get());
+		}
+
+		@Test
+		public void should_deflate_entity_if_only_deflate_accepted() throws Exception {
+			response().entity(new GenericEntity<>(text, String.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<byte[]> httpResponse = encoded("/test", "deflate");
+			assertEquals("deflate", httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).get());
+			assertEquals(text, new String(new InflaterInputStream(new ByteArrayInputStream(httpResponse.body())).readAllBytes()));
+		}
+
+		@Test
+		public void should_not_compress_entity_below_min_size() throws Exception {
+			response().returnFrom(router);
+			HttpResponse<byte[]> httpResponse = encoded("/test", "gzip");
+			assertTrue(httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+			assertEquals("6", httpResponse.headers().firstValue(HttpHeaders.CONTENT_LENGTH).get());
+			assertEquals("entity", new String(httpResponse.body()));
+		}
+
+		@Test
+		public void should_not_compress_media_type_not_opted_in() throws Exception {
+			when(runtime.getCompression()).thenReturn(new Compression(MediaType.APPLICATION_JSON));
+			response().entity(new GenericEntity<>(text, String.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<byte[]> httpResponse = encoded("/test", "gzip");
+			assertTrue(httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+			assertEquals(text, new String(httpResponse.body()));
+		}
+
+		@Test
+		public void should_send_precompressed_variant_of_file() throws Exception {
+			java.nio.file.Path file = Files.createTempFile("content", ".txt");
+			java.nio.file.Path variant = file.resolveSibling(file.getFileName() + ".gz");
+			try {
+				Files.writeString(file, "plain");
+				Files.writeString(variant, "gzipped");
+				response().entity(new GenericEntity<>(file, java.nio.file.Path.class), new Annotation[0]).returnFrom(router);
+				HttpResponse<byte[]> httpResponse = encoded("/test", "gzip");
+				assertEquals("gzip", httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).get());
+				assertEquals("gzipped", new String(httpResponse.body()));
+				assertEquals("plain", get("/test").body());
+			} finally {
+				Files.deleteIfExists(variant);
+				Files.deleteIfExists(file);
+			}
+		}
+
+		@Test
+		public void should_not_send_precompressed_variant_of_media_type_not_opted_in() throws Exception {
+			when(runtime.getCompression()).thenReturn(new Compression(MediaType.APPLICATION_JSON));
+			java.nio.file.Path file = Files.createTempFile("content", ".txt");
+			java.nio.file.Path variant = file.resolveSibling(file.getFileName() + ".gz");
+			try {
+				Files.writeString(file, "plain");
+				Files.writeString(variant, "gzipped");
+				response().entity(new GenericEntity<>(file, java.nio.file.Path.class), new Annotation[0]).returnFrom(router);
+				HttpResponse<byte[]> httpResponse = encoded("/test", "gzip");
+				assertTrue(httpResponse.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+				assertEquals("plain", new String(httpResponse.body()));
+			} finally {
+				Files.deleteIfExists(variant);
+				Files.deleteIfExists(file);
+			}
+		}
+
+		private HttpResponse<byte[]> encoded(String path, String acceptEncoding) throws Exception {
+			HttpRequest request = HttpRequest.newBuilder(path(path)).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding).GET().build();
+			return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+		}
+	}
+
+	@Nested
+	class RespondForStreamingEntity {
+		@Test
+		public void should_write_streaming_output_to_http_response() throws Exception {
+			StreamingOutput output = stream -> stream.write("streamed".getBytes());
+			response().entity(new GenericEntity<>(output, StreamingOutput.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals("streamed", httpResponse.body());
+		}
+
+		@Test
+		public void should_write_chunks_from_iterator() throws Exception {
+			response().entity(new GenericEntity<>(List.of("chunk1,", "chunk2,", "chunk3").iterator(), Iterator.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals("chunk1,chunk2,chunk3", httpResponse.body());
+		}
+
+		@Test
+		public void should_write_chunks_from_publisher_on_demand() throws Exception {
+			response().entity(new GenericEntity<>(publisher(null, "chunk1,", "chunk2,", "chunk3"), Flow.Publisher.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals("chunk1,chunk2,chunk3", httpResponse.body());
+		}
+
+		@Test
+		public void should_flush_each_chunk_before_publisher_completed() throws Exception {
+			CompletableFuture<Void> release = new CompletableFuture<>();
+			Flow.Publisher<Object> publisher = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+				private int next;
+
+				@Override
+				public void request(long n) {
+					if (next++ == 0) subscriber.onNext("chunk1,");
+					else release.thenRunAsync(() -> {
+						subscriber.onNext("chunk2");
+						subscriber.onComplete();
+					});
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			response().entity(new GenericEntity<>(publisher, Flow.Publisher.class), new Annotation[0]).returnFrom(router);
+
+			try {
+				InputStream body = HttpClient.newHttpClient().sendAsync(HttpRequest.newBuilder(path("/test")).GET().build(),
+						HttpResponse.BodyHandlers.ofInputStream()).get(5, TimeUnit.SECONDS).body();
+				String first = CompletableFuture.supplyAsync(() -> {
+					try {
+						return new String(body.readNBytes("chunk1,".length()));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}).get(5, TimeUnit.SECONDS);
+				assertEquals("chunk1,", first);
+				release.complete(null);
+				assertEquals("chunk2", new String(body.readAllBytes()));
+			} finally {
+				release.complete(null);
+			}
+		}
+
+		@Test
+		public void should_respond_500_if_publisher_failed_before_first_chunk() throws Exception {
+			response().entity(new GenericEntity<>(publisher(new IllegalStateException()), Flow.Publisher.class), new Annotation[0]).returnFrom(router);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), httpResponse.statusCode());
+		}
+
+		private Flow.Publisher<Object> publisher(RuntimeException failure, String... chunks) {
+			return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+				private int next;
+
+				@Override
+				public void request(long n) {
+					for (long i = 0; i < n && next < chunks.length; i++) subscriber.onNext(chunks[next++]);
+					if (failure != null) subscriber.onError(failure);
+					else if (next == chunks.length) subscriber.onComplete();
+				}
+
+				@Override
+				public void cancel() {
+					next = chunks.length;
+				}
+			});
+		}
+	}
+
+	@ParameterizedTest(name = "{0} in {1}")
+	@CsvSource({"plain ascii,UTF-8", "中文内容,UTF-8", "emoji \uD83D\uDE00,UTF-8", "lone \uD800 surrogate,UTF-8",
+			"中文内容,UTF-16", "emoji \uD83D\uDE00,UTF-16", "中文内容,GBK", "中文内容,ISO-8859-1"})
+	public void should_count_encoded_bytes_without_encoding_entity(String text, String charset) {
+		assertEquals(text.getBytes(Charset.forName(charset)).length, ResourceServlet.length(text, Charset.forName(charset)));
+	}
+
+	@Nested
+	class RespondForAsynchronousResponse {
+		private final CompletableFuture<String> future = new CompletableFuture<>();
+
+		@BeforeEach
+		public void before() throws Exception {
+			when(delegate.createResponseBuilder()).thenAnswer(invocation -> new StubResponseBuilder());
+			MessageBodyWriter<String> writer = Mockito.mock(MessageBodyWriter.class);
+			Mockito.doAnswer(invocation -> {
+				invocation.getArgument(6, OutputStream.class).write(invocation.getArgument(0, String.class).getBytes());
+				return null;
+			}).when(writer).writeTo(any(), any(), any(), any(), any(), any(), any());
+			when(providers.getMessageBodyWriter(eq(String.class), eq(String.class), any(), any())).thenReturn(writer);
+			response().entity((GenericEntity) new GenericEntity<CompletionStage<String>>(future) {
+			}, new Annotation[0]).returnFrom(router);
+		}
+
+		@Test
+		public void should_write_entity_when_completion_stage_completed() throws Exception {
+			CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> future.complete("async"));
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals(Response.Status.OK.getStatusCode(), httpResponse.statusCode());
+			assertEquals("async", httpResponse.body());
+		}
+
+		@Test
+		public void should_use_response_from_web_application_exception_completing_stage() throws Exception {
+			future.completeExceptionally(new WebApplicationException(new StubResponseBuilder().status(403).build()));
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals(Response.Status.FORBIDDEN.getStatusCode(), httpResponse.statusCode());
+		}
+
+		@Test
+		public void should_respond_service_unavailable_if_completion_stage_timed_out() throws Exception {
+			when(runtime.getAsyncTimeout()).thenReturn(100L);
+			HttpResponse<String> httpResponse = get("/test");
+			assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), httpResponse.statusCode());
+		}
+
+		@Test
+		public void should_not_apply_runtime_timeout_to_suspended_async_response() throws Exception {
+			SuspendedAsyncResponse async = new SuspendedAsyncResponse();
+			response().entity((GenericEntity) new GenericEntity<CompletionStage<String>>((CompletionStage) async.stage()) {
+			}, new Annotation[0]).returnFrom(router);
+			when(runtime.getAsyncTimeout()).thenReturn(100L);
+			async.setTimeout(5, TimeUnit.SECONDS);
+			CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS).execute(() -> async.resume("async"));
+
+			HttpResponse<String> httpResponse = get("/test");
+
+			assertEquals(Response.Status.OK.getStatusCode(), httpResponse.statusCode());
+			assertEquals("async", httpResponse.body());
+		}
+
+		@Test
+		public void should_write_resumed_response_on_container_thread() throws Exception {
+			AtomicReference<String> thread = new AtomicReference<>();
+			MessageBodyWriter<String> writer = Mockito.mock(MessageBodyWriter.class);
+			Mockito.doAnswer(invocation -> {
+				thread.set(Thread.currentThread().getName());
+				return null;
+			}).when(writer).writeTo(any(), any(), any(), any(), any(), any(), any());
+			when(providers.getMessageBodyWriter(eq(String.class), eq(String.class), any(), any())).thenReturn(writer);
+			CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> future.complete("async"));
+
+			get("/test");
+
+			assertTrue(thread.get().startsWith("qtp"), thread.get());
+		}
+	}
+
 	@TestFactory
 	public List<DynamicTest> RespondWhenExtensionMissing() {
 		List<DynamicTest> tests = new ArrayList<>();
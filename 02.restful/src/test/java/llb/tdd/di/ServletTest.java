@@ -30,7 +30,9 @@ public abstract class ServletTest {
 		ServerConnector connector = new ServerConnector(server);
 		server.addConnector(connector);
 		ServletContextHandler handler = new ServletContextHandler(server, "/");
-		handler.addServlet(new ServletHolder(getServlet()), "/");
+		ServletHolder holder = new ServletHolder(getServlet());
+		holder.setAsyncSupported(true);
+		handler.addServlet(holder, "/");
 		server.setHandler(handler);
 		server.start();
 	}
@@ -55,4 +57,14 @@ public abstract class ServletTest {
 			throw new RuntimeException(e);
 		}
 	}
+
+	protected HttpResponse<String> head(String path) {
+		try {
+			HttpClient client = HttpClient.newHttpClient();
+			HttpRequest request = HttpRequest.newBuilder(path(path)).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+			return client.send(request, HttpResponse.BodyHandlers.ofString());
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
 }
\ No newline at end of file
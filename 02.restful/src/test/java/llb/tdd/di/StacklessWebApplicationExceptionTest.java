@@ -0,0 +1,45 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: StacklessWebApplicationExceptionTest
+ * @date 2022-11-24 下午8:05
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class StacklessWebApplicationExceptionTest {
+	@Test
+	public void should_not_record_stack_trace() {
+		StacklessWebApplicationException exception = StacklessWebApplicationException.notFound();
+
+		assertEquals(0, exception.getStackTrace().length);
+	}
+
+	@Test
+	public void should_use_shared_status_response_for_not_found() {
+		assertSame(StatusResponse.NotFound, StacklessWebApplicationException.notFound().getResponse());
+		assertSame(StatusResponse.NotAcceptable, new StacklessWebApplicationException(406).getResponse());
+	}
+
+	@Test
+	public void should_build_status_response_for_other_status() {
+		Response response = new StacklessWebApplicationException(410).getResponse();
+
+		assertEquals(410, response.getStatus());
+		assertEquals(Response.Status.GONE, response.getStatusInfo());
+		assertFalse(response.hasEntity());
+	}
+
+	@Test
+	public void should_not_allow_headers_on_shared_status_response() {
+		assertTrue(StatusResponse.NotFound.getHeaders().isEmpty());
+		assertThrows(UnsupportedOperationException.class, () -> StatusResponse.NotFound.getHeaders().add("Allow", "GET"));
+	}
+}
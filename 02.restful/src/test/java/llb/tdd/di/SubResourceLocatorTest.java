@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.when;
 
@@ -78,6 +80,22 @@ public class SubResourceLocatorTest extends InjectableCallerTest {
 		Mockito.verify(builder).addMatchedPathParameters(matchedPathParameters);
 	}
 
+	@Test
+	public void should_reuse_resource_class_of_sub_resource_between_requests() throws NoSuchMethodException {
+		parameters.put("param", List.of("param"));
+		StubUriInfoBuilder first = new StubUriInfoBuilder();
+		StubUriInfoBuilder second = new StubUriInfoBuilder();
+		first.addMatchedResource(resource);
+		second.addMatchedResource(resource);
+		SubResourceLocators.SubResourceLocator locator = new SubResourceLocators.SubResourceLocator(SubResourceMethods.class.getMethod("getContext", UriInfo.class));
+
+		ResourceRouter.ResourceMethod firstMethod = locator.match(result, "GET", new String[0], resourceContext, first).get();
+		ResourceRouter.ResourceMethod secondMethod = locator.match(result, "GET", new String[0], resourceContext, second).get();
+
+		assertNotSame(first.getLastMatchedResource(), second.getLastMatchedResource());
+		assertSame(firstMethod, secondMethod);
+	}
+
 	@Test
 	public void should_not_wrap_around_web_application_exception() throws NoSuchMethodException {
 		parameters.put("param", List.of("param"));
@@ -0,0 +1,76 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.CompletionCallback;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: SuspendedAsyncResponseTest
+ * @date 2022-11-25 下午8:20
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class SuspendedAsyncResponseTest {
+	private final SuspendedAsyncResponse response = new SuspendedAsyncResponse();
+
+	@Test
+	public void should_complete_stage_when_resumed() throws Exception {
+		assertTrue(response.isSuspended());
+		assertTrue(response.resume("resumed"));
+
+		assertEquals("resumed", future().get());
+		assertTrue(response.isDone());
+		assertFalse(response.resume("again"));
+	}
+
+	@Test
+	public void should_resume_with_service_unavailable_when_cancelled() throws Exception {
+		assertTrue(response.cancel());
+
+		assertTrue(response.isCancelled());
+		assertEquals(503, ((Response) future().get()).getStatus());
+		assertFalse(response.resume("resumed"));
+	}
+
+	@Test
+	public void should_fail_with_service_unavailable_when_timed_out_without_handler() {
+		response.setTimeout(50, TimeUnit.MILLISECONDS);
+
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> future().get(1, TimeUnit.SECONDS));
+		assertEquals(503, ((WebApplicationException) exception.getCause()).getResponse().getStatus());
+	}
+
+	@Test
+	public void should_call_timeout_handler_when_timed_out() throws Exception {
+		response.setTimeoutHandler(suspended -> suspended.resume("timeout"));
+		response.setTimeout(50, TimeUnit.MILLISECONDS);
+
+		assertEquals("timeout", future().get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void should_notify_completion_callback() {
+		AtomicReference<Throwable> completed = new AtomicReference<>();
+		IllegalStateException failure = new IllegalStateException();
+
+		assertEquals(CompletionCallback.class, response.register((CompletionCallback) completed::set).iterator().next());
+		response.resume(failure);
+
+		assertSame(failure, completed.get());
+	}
+
+	private CompletableFuture<Object> future() {
+		return response.stage().toCompletableFuture();
+	}
+}
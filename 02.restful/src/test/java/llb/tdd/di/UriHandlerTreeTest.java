@@ -0,0 +1,84 @@
+package llb.tdd.di;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description:
+ * @ClassName: UriHandlerTreeTest
+ * @date 2022-11-13 下午8:10
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class UriHandlerTreeTest {
+
+    @ParameterizedTest(name = "{2}")
+    @CsvSource(textBlock = """
+            /users/1,           /users/{id},        literal prefix matched
+            /users,             /users,             fully literal template
+            /users/1/orders,    /users,             literal template with remaining
+            /1/orders,          /{id}/orders,       template starts with variable
+            /users.json,        /users.json,        literal segment with regex characters
+            /users,             users,              template without leading slash
+            """)
+    public void should_return_handler_as_candidate_if_literal_segments_matched(String path, String template, String context) {
+        UriHandler handler = handler(template);
+        UriHandlerTree<UriHandler> tree = new UriHandlerTree<>(List.of(handler));
+
+        assertEquals(List.of(handler), tree.candidates(path));
+    }
+
+    @ParameterizedTest(name = "{2}")
+    @CsvSource(textBlock = """
+            /orders/1,          /users/{id},        different root segment
+            /usersx,            /users,             segment only prefixed by literal
+            /users/1/items,     /users/1/orders,    different nested segment
+            """)
+    public void should_not_return_handler_as_candidate_if_literal_segments_not_matched(String path, String template, String context) {
+        UriHandlerTree<UriHandler> tree = new UriHandlerTree<>(List.of(handler(template)));
+
+        assertEquals(List.of(), tree.candidates(path));
+    }
+
+    @Test
+    public void should_always_return_handler_with_non_path_template_as_candidate() {
+        UriHandler handler = Mockito.mock(UriHandler.class);
+        Mockito.when(handler.getUriTemplate()).thenReturn(Mockito.mock(UriTemplate.class));
+        UriHandlerTree<UriHandler> tree = new UriHandlerTree<>(List.of(handler));
+
+        assertEquals(List.of(handler), tree.candidates("/any/path"));
+    }
+
+    @Test
+    public void should_keep_registration_order_of_candidates() {
+        UriHandler orders = handler("/users/{id}/orders");
+        UriHandler users = handler("/users");
+        UriHandler any = handler("/{resources}");
+        UriHandlerTree<UriHandler> tree = new UriHandlerTree<>(List.of(orders, handler("/orders"), users, any));
+
+        assertEquals(List.of(orders, users, any), tree.candidates("/users/1/orders"));
+    }
+
+    @Test
+    public void should_match_most_specific_handler_among_candidates() {
+        UriHandler variable = handler("/users/{id}");
+        UriHandler literal = handler("/users/1234");
+        UriHandlerTree<UriHandler> tree = new UriHandlerTree<>(List.of(variable, literal, handler("/orders")));
+
+        assertSame(literal, UriHandlers.match("/users/1234", tree.candidates("/users/1234")).get());
+    }
+
+    private static UriHandler handler(String template) {
+        PathTemplate uriTemplate = new PathTemplate(template);
+        return () -> uriTemplate;
+    }
+}
@@ -0,0 +1,70 @@
+package llb.tdd.di;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 池化 Deflater 与每次新建 GZIPOutputStream 的响应压缩对比
+ * @ClassName: CompressionBenchmark
+ * @date 2022-12-01 下午9:40
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+	@Param({"100", "1000"})
+	int users;
+
+	private final Compression compression = new Compression("application/json");
+	private byte[] json;
+	private InMemoryHttp.Response recorder;
+	private HttpServletResponse response;
+
+	@Setup
+	public void setup() {
+		json = IntStream.range(0, users).mapToObj(id -> "{\"id\":" + id + ",\"name\":\"user-" + id + "\",\"active\":true}")
+				.collect(Collectors.joining(",", "[", "]")).getBytes(StandardCharsets.UTF_8);
+		recorder = new InMemoryHttp.Response();
+		response = recorder.response();
+	}
+
+	@Benchmark
+	public long pooled() throws IOException {
+		recorder.reset();
+		try (OutputStream output = compression.compress(response, response.getOutputStream(), Compression.Encoding.Gzip)) {
+			output.write(json);
+		}
+		return recorder.getWritten();
+	}
+
+	@Benchmark
+	public long allocated() throws IOException {
+		recorder.reset();
+		try (OutputStream output = new GZIPOutputStream(response.getOutputStream())) {
+			output.write(json);
+		}
+		return recorder.getWritten();
+	}
+
+	@Benchmark
+	public long identity() throws IOException {
+		recorder.reset();
+		response.getOutputStream().write(json);
+		return recorder.getWritten();
+	}
+}
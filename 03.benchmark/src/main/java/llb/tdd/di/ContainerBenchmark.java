@@ -0,0 +1,96 @@
+package llb.tdd.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: ContextConfig.getContext 及 Context.get 基准测试
+ * @ClassName: ContainerBenchmark
+ * @date 2022-11-20 下午4:05
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerBenchmark {
+	private static final ComponentRef<Repository> repository = ComponentRef.of(Repository.class);
+	private static final ComponentRef<Service> service = ComponentRef.of(Service.class);
+	private static final ComponentRef<Provider<Repository>> repositoryProvider = new ComponentRef<>() {
+	};
+
+	@Param({"10", "100", "1000"})
+	int components;
+	@Param({"Reflective", "Compiled"})
+	ContextConfig.Injection injection;
+
+	private ContextConfig config;
+	private Context context;
+
+	@Setup
+	public void setup() {
+		config = new ContextConfig();
+		config.injection(injection);
+		config.component(Repository.class, Repository.class);
+		config.component(Service.class, Service.class);
+		for (int i = 0; i < components; i++) config.component(Service.class, Service.class, new NamedLiteral("service-" + i));
+		context = config.getContext();
+	}
+
+	@Benchmark
+	public Context getContext() {
+		return config.getContext();
+	}
+
+	@Benchmark
+	public Object singleton() {
+		return context.get(repository).get();
+	}
+
+	@Benchmark
+	public Object prototype() {
+		return context.get(service).get();
+	}
+
+	@Benchmark
+	public Object provider() {
+		return context.get(repositoryProvider).get().get();
+	}
+
+	@Singleton
+	static class Repository {
+	}
+
+	static class Service {
+		@Inject
+		Repository field;
+		Provider<Repository> provider;
+
+		@Inject
+		Service(Repository repository) {
+		}
+
+		@Inject
+		void install(Provider<Repository> provider) {
+			this.provider = provider;
+		}
+	}
+
+	record NamedLiteral(String value) implements Named {
+		@Override
+		public Class<? extends Annotation> annotationType() {
+			return Named.class;
+		}
+	}
+}
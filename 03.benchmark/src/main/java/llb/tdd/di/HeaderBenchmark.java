@@ -0,0 +1,118 @@
+package llb.tdd.di;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 十个响应头的写出开销, 配合 -prof gc 观察分配
+ * @ClassName: HeaderBenchmark
+ * @date 2022-11-22 下午8:15
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderBenchmark {
+	private ResourceServlet servlet;
+	private HttpServletRequest delegated;
+	private HttpServletRequest encoded;
+	private InMemoryHttp.Response recorder;
+	private HttpServletResponse response;
+
+	@Setup
+	public void setup() {
+		InMemoryResponse.install();
+		servlet = new ResourceServlet(new InMemoryRuntime(0, new Delegated(), new Encoded()));
+		Map<String, List<String>> headers = Map.of(HttpHeaders.ACCEPT, List.of("*/*"));
+		delegated = InMemoryHttp.request("GET", "/delegated", null, headers);
+		encoded = InMemoryHttp.request("GET", "/encoded", null, headers);
+		recorder = new InMemoryHttp.Response();
+		response = recorder.response();
+	}
+
+	@Benchmark
+	public int delegatedHeaders() throws IOException, ServletException {
+		recorder.reset();
+		servlet.service(delegated, response);
+		return recorder.getStatus();
+	}
+
+	@Benchmark
+	public int encodedHeaders() throws IOException, ServletException {
+		recorder.reset();
+		servlet.service(encoded, response);
+		return recorder.getStatus();
+	}
+
+	@Path("/delegated")
+	public static class Delegated {
+		private static final Date Expires = new Date(0);
+		private static final URI Location = URI.create("/delegated");
+
+		@GET
+		public Response get() {
+			return Response.ok()
+					.header(HttpHeaders.CACHE_CONTROL, "no-cache")
+					.header(HttpHeaders.CONTENT_LANGUAGE, Locale.CHINA)
+					.header(HttpHeaders.CONTENT_LOCATION, Location)
+					.header(HttpHeaders.EXPIRES, Expires)
+					.header(HttpHeaders.ETAG, "\"v1\"")
+					.header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+					.header("X-Content-Type-Options", "nosniff")
+					.header("X-Frame-Options", "DENY")
+					.header("X-RateLimit-Limit", 1000)
+					.header("X-RateLimit-Remaining", 999)
+					.build();
+		}
+	}
+
+	@Path("/encoded")
+	public static class Encoded {
+		private static final EncodedHeader NoCache = EncodedHeader.of("no-cache");
+		private static final EncodedHeader Language = EncodedHeader.of(Locale.CHINA.toString());
+		private static final EncodedHeader Location = EncodedHeader.of("/encoded");
+		private static final EncodedHeader Expires = EncodedHeader.of(new Date(0).toString());
+		private static final EncodedHeader ETag = EncodedHeader.of("\"v1\"");
+		private static final EncodedHeader Vary = EncodedHeader.of(HttpHeaders.ACCEPT);
+		private static final EncodedHeader NoSniff = EncodedHeader.of("nosniff");
+		private static final EncodedHeader Deny = EncodedHeader.of("DENY");
+		private static final EncodedHeader Limit = EncodedHeader.of("1000");
+		private static final EncodedHeader Remaining = EncodedHeader.of("999");
+
+		@GET
+		public Response get() {
+			return Response.ok()
+					.header(HttpHeaders.CACHE_CONTROL, NoCache)
+					.header(HttpHeaders.CONTENT_LANGUAGE, Language)
+					.header(HttpHeaders.CONTENT_LOCATION, Location)
+					.header(HttpHeaders.EXPIRES, Expires)
+					.header(HttpHeaders.ETAG, ETag)
+					.header(HttpHeaders.VARY, Vary)
+					.header("X-Content-Type-Options", NoSniff)
+					.header("X-Frame-Options", Deny)
+					.header("X-RateLimit-Limit", Limit)
+					.header("X-RateLimit-Remaining", Remaining)
+					.build();
+		}
+	}
+}
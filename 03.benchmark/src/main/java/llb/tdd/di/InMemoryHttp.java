@@ -0,0 +1,112 @@
+package llb.tdd.di;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 基准测试用的内存 HttpServletRequest / HttpServletResponse
+ * @ClassName: InMemoryHttp
+ * @date 2022-11-20 下午3:40
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class InMemoryHttp {
+	static HttpServletRequest request(String method, String path, String query, Map<String, List<String>> headers) {
+		return proxy(HttpServletRequest.class, (proxy, m, args) -> switch (m.getName()) {
+			case "getMethod" -> method;
+			case "getServletPath", "getRequestURI" -> path;
+			case "getQueryString" -> query;
+			case "getHeader" -> headers.getOrDefault(args[0], List.of()).stream().findFirst().orElse(null);
+			case "getHeaders" -> Collections.enumeration(headers.getOrDefault(args[0], List.of()));
+			case "getHeaderNames" -> Collections.enumeration(headers.keySet());
+			default -> defaultValue(m);
+		});
+	}
+
+	static class Response implements InvocationHandler {
+		private int status;
+		private final Map<String, List<String>> headers = new HashMap<>();
+		private final CountingOutputStream output = new CountingOutputStream();
+
+		HttpServletResponse response() {
+			return proxy(HttpServletResponse.class, this);
+		}
+
+		int getStatus() {
+			return status;
+		}
+
+		long getWritten() {
+			return output.written;
+		}
+
+		void reset() {
+			status = 0;
+			headers.clear();
+			output.written = 0;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			switch (method.getName()) {
+				case "setStatus" -> status = (int) args[0];
+				case "addHeader" -> headers.computeIfAbsent((String) args[0], k -> new ArrayList<>()).add((String) args[1]);
+				case "setHeader" -> headers.put((String) args[0], new ArrayList<>(List.of((String) args[1])));
+				case "getOutputStream" -> {
+					return output;
+				}
+				case "getStatus" -> {
+					return status;
+				}
+				default -> {
+					return defaultValue(method);
+				}
+			}
+			return null;
+		}
+	}
+
+	private static class CountingOutputStream extends ServletOutputStream {
+		private long written;
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+		}
+
+		@Override
+		public void write(int b) {
+			written++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			written += len;
+		}
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+	}
+
+	private static Object defaultValue(Method method) {
+		Class<?> type = method.getReturnType();
+		if (type == boolean.class) return false;
+		if (type == int.class) return 0;
+		if (type == long.class) return 0L;
+		return null;
+	}
+}
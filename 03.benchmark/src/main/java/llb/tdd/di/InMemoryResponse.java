@@ -0,0 +1,350 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.SeBootstrap;
+import jakarta.ws.rs.core.*;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 基准测试用的内存响应及 RuntimeDelegate
+ * @ClassName: InMemoryResponse
+ * @date 2022-11-20 下午3:10
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class InMemoryResponse extends StatusResponse {
+	private final GenericEntity<?> entity;
+	private final Annotation[] annotations;
+	private final MediaType mediaType;
+	private final MultivaluedMap<String, Object> headers;
+	private final Set<String> allowed;
+
+	InMemoryResponse(int status, GenericEntity<?> entity, Annotation[] annotations, MediaType mediaType,
+					 MultivaluedMap<String, Object> headers, Set<String> allowed) {
+		super(StatusResponse.of(status).getStatusInfo());
+		this.entity = entity;
+		this.annotations = annotations;
+		this.mediaType = mediaType;
+		this.headers = headers;
+		this.allowed = allowed;
+	}
+
+	static void install() {
+		RuntimeDelegate real;
+		try {
+			real = RuntimeDelegate.getInstance();
+		} catch (RuntimeException e) {
+			real = null;
+		}
+		RuntimeDelegate.setInstance(new Delegate(real instanceof Delegate installed ? installed.real : real));
+	}
+
+	@Override
+	GenericEntity getGenericEntity() {
+		return entity;
+	}
+
+	@Override
+	Annotation[] getAnnotations() {
+		return annotations;
+	}
+
+	@Override
+	public Object getEntity() {
+		return entity == null ? null : entity.getEntity();
+	}
+
+	@Override
+	public boolean hasEntity() {
+		return entity != null;
+	}
+
+	@Override
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	@Override
+	public Set<String> getAllowedMethods() {
+		return allowed;
+	}
+
+	@Override
+	public MultivaluedMap<String, Object> getMetadata() {
+		return headers;
+	}
+
+	@Override
+	public MultivaluedMap<String, String> getStringHeaders() {
+		MultivaluedMap<String, String> strings = new MultivaluedHashMap<>();
+		headers.forEach((name, values) -> values.forEach(value -> strings.add(name, value.toString())));
+		return strings;
+	}
+
+	@Override
+	public String getHeaderString(String name) {
+		List<String> values = getStringHeaders().get(name);
+		return values == null ? null : String.join(",", values);
+	}
+
+	static class Builder extends ResponseBuilder {
+		private int status = Status.OK.getStatusCode();
+		private GenericEntity<?> entity;
+		private Annotation[] annotations = new Annotation[0];
+		private MediaType mediaType;
+		private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		private final Set<String> allowed = new HashSet<>();
+
+		@Override
+		public Response build() {
+			return new InMemoryResponse(status, entity, annotations, mediaType, headers, allowed);
+		}
+
+		@Override
+		public ResponseBuilder clone() {
+			Builder clone = new Builder();
+			clone.status = status;
+			clone.entity = entity;
+			clone.annotations = annotations;
+			clone.mediaType = mediaType;
+			clone.headers.putAll(headers);
+			clone.allowed.addAll(allowed);
+			return clone;
+		}
+
+		@Override
+		public ResponseBuilder status(int status) {
+			this.status = status;
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder status(int status, String reasonPhrase) {
+			return status(status);
+		}
+
+		@Override
+		public ResponseBuilder entity(Object entity) {
+			this.entity = entity == null || entity instanceof GenericEntity<?> ? (GenericEntity<?>) entity
+					: new GenericEntity<>(entity, entity.getClass());
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder entity(Object entity, Annotation[] annotations) {
+			this.annotations = annotations;
+			return entity(entity);
+		}
+
+		@Override
+		public ResponseBuilder allow(String... methods) {
+			return allow(Set.of(methods));
+		}
+
+		@Override
+		public ResponseBuilder allow(Set<String> methods) {
+			allowed.addAll(methods);
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder cacheControl(CacheControl cacheControl) {
+			return header(HttpHeaders.CACHE_CONTROL, cacheControl);
+		}
+
+		@Override
+		public ResponseBuilder encoding(String encoding) {
+			return header(HttpHeaders.CONTENT_ENCODING, encoding);
+		}
+
+		@Override
+		public ResponseBuilder header(String name, Object value) {
+			headers.add(name, value);
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder replaceAll(MultivaluedMap<String, Object> headers) {
+			this.headers.clear();
+			this.headers.putAll(headers);
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder language(String language) {
+			return header(HttpHeaders.CONTENT_LANGUAGE, language);
+		}
+
+		@Override
+		public ResponseBuilder language(Locale language) {
+			return header(HttpHeaders.CONTENT_LANGUAGE, language);
+		}
+
+		@Override
+		public ResponseBuilder type(MediaType type) {
+			this.mediaType = type;
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder type(String type) {
+			String[] parts = type.split(";")[0].trim().split("/");
+			return type(new MediaType(parts[0], parts.length > 1 ? parts[1] : MediaType.MEDIA_TYPE_WILDCARD));
+		}
+
+		@Override
+		public ResponseBuilder variant(Variant variant) {
+			type(variant.getMediaType());
+			if (variant.getLanguage() != null) language(variant.getLanguage());
+			if (variant.getEncoding() != null) encoding(variant.getEncoding());
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder contentLocation(URI location) {
+			return header(HttpHeaders.CONTENT_LOCATION, location);
+		}
+
+		@Override
+		public ResponseBuilder cookie(NewCookie... cookies) {
+			for (NewCookie cookie : cookies) header(HttpHeaders.SET_COOKIE, cookie);
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder expires(Date expires) {
+			return header(HttpHeaders.EXPIRES, expires);
+		}
+
+		@Override
+		public ResponseBuilder lastModified(Date lastModified) {
+			return header(HttpHeaders.LAST_MODIFIED, lastModified);
+		}
+
+		@Override
+		public ResponseBuilder location(URI location) {
+			return header(HttpHeaders.LOCATION, location);
+		}
+
+		@Override
+		public ResponseBuilder tag(EntityTag tag) {
+			return header(HttpHeaders.ETAG, tag);
+		}
+
+		@Override
+		public ResponseBuilder tag(String tag) {
+			return header(HttpHeaders.ETAG, tag);
+		}
+
+		@Override
+		public ResponseBuilder variants(Variant... variants) {
+			return variants(List.of(variants));
+		}
+
+		@Override
+		public ResponseBuilder variants(List<Variant> variants) {
+			if (variants.stream().map(Variant::getMediaType).distinct().count() > 1) header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+			if (variants.stream().map(Variant::getLanguage).distinct().count() > 1) header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE);
+			if (variants.stream().map(Variant::getEncoding).distinct().count() > 1) header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder links(Link... links) {
+			for (Link link : links) header(HttpHeaders.LINK, link);
+			return this;
+		}
+
+		@Override
+		public ResponseBuilder link(URI uri, String rel) {
+			return link(uri.toString(), rel);
+		}
+
+		@Override
+		public ResponseBuilder link(String uri, String rel) {
+			return header(HttpHeaders.LINK, "<" + uri + ">; rel=\"" + rel + "\"");
+		}
+	}
+
+	static class Delegate extends RuntimeDelegate {
+		private static final HeaderDelegate<Object> toString = new HeaderDelegate<>() {
+			@Override
+			public Object fromString(String value) {
+				return value;
+			}
+
+			@Override
+			public String toString(Object value) {
+				return value.toString();
+			}
+		};
+
+		private final RuntimeDelegate real;
+
+		Delegate(RuntimeDelegate real) {
+			this.real = real;
+		}
+
+		@Override
+		public ResponseBuilder createResponseBuilder() {
+			return new Builder();
+		}
+
+		@Override
+		public <T> HeaderDelegate<T> createHeaderDelegate(Class<T> type) {
+			return (HeaderDelegate<T>) toString;
+		}
+
+		// 以下工厂与响应无关, 交给 classpath 上真正的 JAX-RS 实现
+		@Override
+		public UriBuilder createUriBuilder() {
+			return real().createUriBuilder();
+		}
+
+		@Override
+		public Variant.VariantListBuilder createVariantListBuilder() {
+			return real().createVariantListBuilder();
+		}
+
+		@Override
+		public <T> T createEndpoint(Application application, Class<T> endpointType) {
+			return real().createEndpoint(application, endpointType);
+		}
+
+		@Override
+		public Link.Builder createLinkBuilder() {
+			return real().createLinkBuilder();
+		}
+
+		@Override
+		public SeBootstrap.Configuration.Builder createConfigurationBuilder() {
+			return real().createConfigurationBuilder();
+		}
+
+		@Override
+		public CompletionStage<SeBootstrap.Instance> bootstrap(Application application, SeBootstrap.Configuration configuration) {
+			return real().bootstrap(application, configuration);
+		}
+
+		@Override
+		public CompletionStage<SeBootstrap.Instance> bootstrap(Class<? extends Application> clazz, SeBootstrap.Configuration configuration) {
+			return real().bootstrap(clazz, configuration);
+		}
+
+		@Override
+		public EntityPart.Builder createEntityPartBuilder(String partName) {
+			return real().createEntityPartBuilder(partName);
+		}
+
+		private RuntimeDelegate real() {
+			if (real == null) throw new IllegalStateException("No JAX-RS implementation on the classpath");
+			return real;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package llb.tdd.di;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.container.ResourceContext;
+import jakarta.ws.rs.core.*;
+import jakarta.ws.rs.ext.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static java.util.Arrays.stream;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 基准测试用的内存 Runtime
+ * @ClassName: InMemoryRuntime
+ * @date 2022-11-20 下午3:25
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+class InMemoryRuntime implements Runtime, Providers, ResourceContext {
+	private final Map<Class<?>, Object> resources = new HashMap<>();
+	private final int dispatchCacheSize;
+	private final ResourceRouter router;
+
+	InMemoryRuntime(int dispatchCacheSize, Object... resources) {
+		this.dispatchCacheSize = dispatchCacheSize;
+		for (Object resource : resources) this.resources.put(resource.getClass(), resource);
+		this.router = new DefaultResourceRouter(this, stream(resources)
+				.<ResourceRouter.Resource>map(resource -> new ResourceHandler(resource.getClass())).toList());
+	}
+
+	@Override
+	public Providers getProviders() {
+		return this;
+	}
+
+	@Override
+	public ResourceContext createResourceContext(HttpServletRequest request, HttpServletResponse response) {
+		return this;
+	}
+
+	@Override
+	public UriInfoBuilder createUriInfoBuilder(HttpServletRequest request) {
+		return new InMemoryUriInfoBuilder(request.getRequestURI(), request.getQueryString());
+	}
+
+	@Override
+	public Context getApplicationContext() {
+		return null;
+	}
+
+	@Override
+	public ResourceRouter getResourceRouter() {
+		return router;
+	}
+
+	@Override
+	public int getDispatchCacheSize() {
+		return dispatchCacheSize;
+	}
+
+	@Override
+	public <T> T getResource(Class<T> resourceClass) {
+		return (T) resources.get(resourceClass);
+	}
+
+	@Override
+	public <T> T initResource(T resource) {
+		return resource;
+	}
+
+	@Override
+	public <T> MessageBodyReader<T> getMessageBodyReader(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return null;
+	}
+
+	@Override
+	public <T> MessageBodyWriter<T> getMessageBodyWriter(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return (MessageBodyWriter<T>) TextWriter;
+	}
+
+	@Override
+	public <T extends Throwable> ExceptionMapper<T> getExceptionMapper(Class<T> type) {
+		return exception -> Response.serverError().build();
+	}
+
+	@Override
+	public <T> ContextResolver<T> getContextResolver(Class<T> contextType, MediaType mediaType) {
+		return null;
+	}
+
+	private static final MessageBodyWriter<Object> TextWriter = new MessageBodyWriter<>() {
+		@Override
+		public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+			return true;
+		}
+
+		@Override
+		public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+							MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+			entityStream.write(entity.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	};
+
+	static class InMemoryUriInfoBuilder implements UriInfoBuilder {
+		private final String path;
+		private final String query;
+		private final MultivaluedMap<String, String> queryParameters;
+		private final List<Object> matched = new ArrayList<>();
+		private final MultivaluedMap<String, String> pathParameters = new MultivaluedHashMap<>();
+
+		InMemoryUriInfoBuilder(String path, String query) {
+			this.path = path;
+			this.query = query;
+			this.queryParameters = queryParameters(query);
+		}
+
+		@Override
+		public Object getLastMatchedResource() {
+			return matched.get(matched.size() - 1);
+		}
+
+		@Override
+		public void addMatchedResource(Object resource) {
+			matched.add(resource);
+		}
+
+		@Override
+		public void addMatchedPathParameters(Map<String, String> pathParameters) {
+			for (Map.Entry<String, String> parameter : pathParameters.entrySet())
+				this.pathParameters.add(parameter.getKey(), parameter.getValue());
+		}
+
+		@Override
+		public UriInfo createUriInfo() {
+			return new InMemoryUriInfo(path, query, pathParameters, queryParameters, matched);
+		}
+
+		private static MultivaluedMap<String, String> queryParameters(String query) {
+			MultivaluedMap<String, String> parameters = new MultivaluedHashMap<>();
+			if (query == null) return parameters;
+			for (String parameter : query.split("&")) {
+				int equals = parameter.indexOf('=');
+				if (equals < 0) parameters.add(decode(parameter), "");
+				else parameters.add(decode(parameter.substring(0, equals)), decode(parameter.substring(equals + 1)));
+			}
+			return parameters;
+		}
+
+		private static String decode(String value) {
+			return URLDecoder.decode(value, StandardCharsets.UTF_8);
+		}
+	}
+
+	record InMemoryUriInfo(String path, String query, MultivaluedMap<String, String> pathParameters,
+						   MultivaluedMap<String, String> queryParameters, List<Object> matched) implements UriInfo {
+		private static final URI Base = URI.create("http://localhost/");
+
+		@Override
+		public String getPath() {
+			return getPath(true);
+		}
+
+		@Override
+		public String getPath(boolean decode) {
+			String relative = path.startsWith("/") ? path.substring(1) : path;
+			return decode ? URLDecoder.decode(relative, StandardCharsets.UTF_8) : relative;
+		}
+
+		@Override
+		public List<PathSegment> getPathSegments() {
+			return getPathSegments(true);
+		}
+
+		@Override
+		public List<PathSegment> getPathSegments(boolean decode) {
+			return stream(getPath(decode).split("/")).<PathSegment>map(Segment::new).toList();
+		}
+
+		@Override
+		public URI getRequestUri() {
+			return Base.resolve(query == null ? getPath(false) : getPath(false) + "?" + query);
+		}
+
+		@Override
+		public UriBuilder getRequestUriBuilder() {
+			return UriBuilder.fromUri(getRequestUri());
+		}
+
+		@Override
+		public URI getAbsolutePath() {
+			return Base.resolve(getPath(false));
+		}
+
+		@Override
+		public UriBuilder getAbsolutePathBuilder() {
+			return UriBuilder.fromUri(getAbsolutePath());
+		}
+
+		@Override
+		public URI getBaseUri() {
+			return Base;
+		}
+
+		@Override
+		public UriBuilder getBaseUriBuilder() {
+			return UriBuilder.fromUri(Base);
+		}
+
+		@Override
+		public MultivaluedMap<String, String> getPathParameters() {
+			return pathParameters;
+		}
+
+		@Override
+		public MultivaluedMap<String, String> getPathParameters(boolean decode) {
+			return pathParameters;
+		}
+
+		@Override
+		public MultivaluedMap<String, String> getQueryParameters() {
+			return queryParameters;
+		}
+
+		@Override
+		public MultivaluedMap<String, String> getQueryParameters(boolean decode) {
+			return queryParameters;
+		}
+
+		@Override
+		public List<String> getMatchedURIs() {
+			return List.of(getPath());
+		}
+
+		@Override
+		public List<String> getMatchedURIs(boolean decode) {
+			return List.of(getPath(decode));
+		}
+
+		@Override
+		public List<Object> getMatchedResources() {
+			List<Object> resources = new ArrayList<>(matched);
+			Collections.reverse(resources);
+			return resources;
+		}
+
+		@Override
+		public URI resolve(URI uri) {
+			return Base.resolve(uri);
+		}
+
+		@Override
+		public URI relativize(URI uri) {
+			return getRequestUri().relativize(uri.isAbsolute() ? uri : resolve(uri));
+		}
+	}
+
+	private record Segment(String path) implements PathSegment {
+		@Override
+		public String getPath() {
+			return path;
+		}
+
+		@Override
+		public MultivaluedMap<String, String> getMatrixParameters() {
+			return new MultivaluedHashMap<>();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: MethodInvoker.invoke 基准测试
+ * @ClassName: InvocationBenchmark
+ * @date 2022-11-20 下午4:35
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationBenchmark {
+	@Param({"Compiled", "Handle", "Reflective"})
+	String invocation;
+
+	private MethodInvoker invoker;
+	private MethodInvoker.Invoker call;
+	private Users users;
+	private final Object[] arguments = {42, "name"};
+	private InMemoryRuntime runtime;
+	private UriInfoBuilder builder;
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		users = new Users();
+		invoker = new MethodInvoker(Users.class.getMethod("get", int.class, String.class), MethodInvoker.Invocation.valueOf(invocation));
+		call = MethodInvoker.Invocation.valueOf(invocation).invoker(Users.class.getMethod("get", int.class, String.class));
+		runtime = new InMemoryRuntime(0, users);
+		builder = new InMemoryRuntime.InMemoryUriInfoBuilder("/users/42", "fields=name");
+		builder.addMatchedResource(users);
+		builder.addMatchedPathParameters(Map.of("id", "42"));
+	}
+
+	@Benchmark
+	public Object invoke() {
+		return invoker.invoke(runtime, builder);
+	}
+
+	@Benchmark
+	public Object call() throws Throwable {
+		return call.invoke(users, arguments);
+	}
+
+	@Path("/users/{id}")
+	public static class Users {
+		@GET
+		public String get(@PathParam("id") int id, @QueryParam("fields") String fields) {
+			return fields;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package llb.tdd.di;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: PathTemplate.match 基准测试, 对比专用匹配器与正则匹配器
+ * @ClassName: PathTemplateBenchmark
+ * @date 2022-11-22 下午7:30
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathTemplateBenchmark {
+	@Param({"/users|/users/1", "/users/{id}/orders/{order}|/users/1/orders/2", "/users/{id:[0-9]+}|/users/12", "/users|/orders"})
+	String templateAndPath;
+
+	private PathTemplate template;
+	private PathTemplate regex;
+	private String path;
+
+	@Setup
+	public void setup() {
+		String[] parts = templateAndPath.split("\\|");
+		template = new PathTemplate(parts[0]);
+		regex = PathTemplate.regex(parts[0]);
+		path = parts[1];
+	}
+
+	@Benchmark
+	public Optional<UriTemplate.MatchResult> specialised() {
+		return template.match(path);
+	}
+
+	@Benchmark
+	public Optional<UriTemplate.MatchResult> regex() {
+		return regex.match(path);
+	}
+}
@@ -0,0 +1,53 @@
+package llb.tdd.di;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: UriHandlers 匹配基准测试
+ * @ClassName: RoutingBenchmark
+ * @date 2022-11-20 下午4:20
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+	@Param({"10", "100", "1000"})
+	int handlers;
+
+	private List<Handler> list;
+	private UriHandlerTree<Handler> tree;
+	private String path;
+
+	@Setup
+	public void setup() {
+		list = new ArrayList<>();
+		for (int i = 0; i < handlers; i++) list.add(new Handler(new PathTemplate("/resource" + i + "/{id}")));
+		tree = new UriHandlerTree<>(list);
+		path = "/resource" + (handlers - 1) + "/42";
+	}
+
+	@Benchmark
+	public Optional<Handler> matchHandlers() {
+		return UriHandlers.match(path, list);
+	}
+
+	@Benchmark
+	public Optional<Handler> matchIndexedHandlers() {
+		return UriHandlers.match(path, tree.candidates(path));
+	}
+
+	record Handler(UriTemplate getUriTemplate) implements UriHandler {
+	}
+}
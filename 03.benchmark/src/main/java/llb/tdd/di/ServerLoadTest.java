@@ -0,0 +1,77 @@
+package llb.tdd.di;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: 比较平台线程池与虚拟线程下 ResourceServer 处理阻塞资源方法的吞吐
+ * @ClassName: ServerLoadTest
+ * @date 2022-11-26 下午4:20
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+public class ServerLoadTest {
+	private static final int Concurrency = Integer.getInteger("concurrency", 2000);
+	private static final int Requests = Integer.getInteger("requests", 20000);
+	private static final long Latency = Long.getLong("latency", 50);
+	private static final int MaxThreads = Integer.getInteger("maxThreads", 200);
+	private static final int Acceptors = Integer.getInteger("acceptors", -1);
+	private static final int Selectors = Integer.getInteger("selectors", -1);
+
+	public static void main(String[] args) throws Exception {
+		InMemoryResponse.install();
+		for (ResourceServer.Threads threads : ResourceServer.Threads.values()) run(threads);
+	}
+
+	private static void run(ResourceServer.Threads threads) throws Exception {
+		ResourceServer server = new ResourceServer(new InMemoryRuntime(0, new Blocking()));
+		server.port(0);
+		server.threads(threads);
+		server.maxThreads(MaxThreads);
+		server.acceptors(Acceptors);
+		server.selectors(Selectors);
+		server.start();
+		ExecutorService executor = Executors.newFixedThreadPool(java.lang.Runtime.getRuntime().availableProcessors());
+		try {
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/blocking")).GET().build();
+			Semaphore permits = new Semaphore(Concurrency);
+			CountDownLatch done = new CountDownLatch(Requests);
+			LongAdder failures = new LongAdder();
+			long start = System.nanoTime();
+			for (int i = 0; i < Requests; i++) {
+				permits.acquire();
+				client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+					if (error != null || response.statusCode() != 200) failures.increment();
+					permits.release();
+					done.countDown();
+				});
+			}
+			done.await();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%-8s virtual=%-5s requests=%d concurrency=%d latency=%dms maxThreads=%d throughput=%.0f req/s failures=%d%n",
+					threads, server.isVirtualThreads(), Requests, Concurrency, Latency, MaxThreads, Requests / seconds, failures.sum());
+		} finally {
+			executor.shutdownNow();
+			server.stop();
+		}
+	}
+
+	@Path("/blocking")
+	public static class Blocking {
+		@GET
+		public String get() throws InterruptedException {
+			Thread.sleep(Latency);
+			return "ok";
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package llb.tdd.di;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.HttpHeaders;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author LiLuBing
+ * @PackageName: llb.tdd.di
+ * @Description: ResourceServlet.service 端到端基准测试
+ * @ClassName: ServletBenchmark
+ * @date 2022-11-20 下午4:50
+ * @ProjectName tdd
+ * @Version V1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServletBenchmark {
+	@Param({"0", "1024"})
+	int dispatchCacheSize;
+
+	private ResourceServlet servlet;
+	private HttpServletRequest found;
+	private HttpServletRequest head;
+	private HttpServletRequest notFound;
+	private InMemoryHttp.Response recorder;
+	private HttpServletResponse response;
+
+	@Setup
+	public void setup() {
+		InMemoryResponse.install();
+		servlet = new ResourceServlet(new InMemoryRuntime(dispatchCacheSize, new InvocationBenchmark.Users()));
+		Map<String, List<String>> headers = Map.of(HttpHeaders.ACCEPT, List.of("*/*"));
+		found = InMemoryHttp.request("GET", "/users/42", "fields=name", headers);
+		head = InMemoryHttp.request("HEAD", "/users/42", "fields=name", headers);
+		notFound = InMemoryHttp.request("GET", "/orders/42", null, headers);
+		recorder = new InMemoryHttp.Response();
+		response = recorder.response();
+	}
+
+	@Benchmark
+	public long service() throws IOException, ServletException {
+		recorder.reset();
+		servlet.service(found, response);
+		return recorder.getWritten();
+	}
+
+	@Benchmark
+	public int serviceHead() throws IOException, ServletException {
+		recorder.reset();
+		servlet.service(head, response);
+		return recorder.getStatus();
+	}
+
+	@Benchmark
+	public int serviceNotFound() throws IOException, ServletException {
+		recorder.reset();
+		servlet.service(notFound, response);
+		return recorder.getStatus();
+	}
+}